@@ -3,6 +3,7 @@ package au.com.addstar.pansentials;
 public abstract class AbstractModule implements Module
 {
 	private MasterPlugin mPlugin;
+	private ModuleContext mContext;
 	
 	@Override
 	public void onEnable()
@@ -20,8 +21,19 @@ public abstract class AbstractModule implements Module
 		mPlugin = plugin;
 	}
 
+	@Override
+	public void setContext(ModuleContext context)
+	{
+		mContext = context;
+	}
+
     protected MasterPlugin getPlugin()
 	{
 		return mPlugin;
 	}
+	
+	protected ModuleContext getContext()
+	{
+		return mContext;
+	}
 }
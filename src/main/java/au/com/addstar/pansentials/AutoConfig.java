@@ -1,16 +1,22 @@
 package au.com.addstar.pansentials;
 
-import org.apache.commons.lang3.Validate;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AutoConfiguration System<br/><br/>
@@ -39,19 +45,43 @@ import java.util.*;
  * </ul>
  * 
  * NOTE: You cannot use an abstract type for the type of a config field. The loader needs to know what class to instantiate.
+ * <br/>
+ * The fields of each class are resolved once into a {@link ConfigSchema} and reused for every load and save.
+ * Saves only write when the contents change, and always go through a temporary file and an atomic move.
  * 
  * @author Schmoller
  * @version 1.5
  */
-abstract class AutoConfig {
+public abstract class AutoConfig {
     private final File mFile;
     private final HashMap<String, String> mCategoryComments;
+    
+    /**
+     * The contents of the file as last read or written, used to skip saves that would not change it
+     */
+    private volatile String mLastContents;
+    
+    /**
+     * The whole file as last loaded, including keys not bound to fields
+     */
+    private volatile FileConfiguration mLoaded;
+    
+    private static ExecutorService sWriter;
 
-    AutoConfig(File file)
+    protected AutoConfig(File file)
 	{
 		mFile = file;
 		mCategoryComments = new HashMap<>();
 	}
+    
+    /**
+     * Creates a config that is not backed by a file. Its values can only be loaded
+     * from a section of another config with {@link #load(ConfigurationSection)}
+     */
+    protected AutoConfig()
+    {
+    	this(null);
+    }
 	
 	protected void setCategoryComment(String category, String comment)
 	{
@@ -62,7 +92,7 @@ abstract class AutoConfig {
 	 * This should be used to process any data loaded from the config including
 	 * performing validation and translation
 	 */
-    void onPostLoad() {
+    protected void onPostLoad() {
 	}
 	
 	/**
@@ -71,410 +101,336 @@ abstract class AutoConfig {
     private void onPreSave() {
 	}
 	
-	private <T> Set<T> newSet(Class<? extends Set<T>> setClass, Collection<T> data) throws InvalidConfigurationException
+	public boolean load()
 	{
-		Validate.isTrue(!Modifier.isAbstract(setClass.getModifiers()), "You cannot use an abstract type for AutoConfiguration");
-		
-		Constructor<? extends Set<T>> constructor;
-		
+		String contents;
 		try
 		{
-			constructor = setClass.getConstructor(Collection.class);
+			// Make sure the file exists
+			if(!mFile.exists())
+			{
+				mFile.getParentFile().mkdirs();
+				mFile.createNewFile();
+			}
 			
-			return constructor.newInstance(data);
-		}
-		catch(Exception e)
+			contents = new String(Files.readAllBytes(mFile.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e)
 		{
-			throw new InvalidConfigurationException(e);
+			e.printStackTrace();
+			return false;
 		}
+		
+		return loadFromString(contents);
 	}
 	
-	private <T> List<T> newList(Class<? extends List<T>> listClass, Collection<T> data) throws InvalidConfigurationException
+	/**
+	 * Loads the values from contents already read from the config file.
+	 * Does not touch the Bukkit API so it may be called from any thread.
+	 */
+	boolean loadFromString(String contents)
 	{
-		Validate.isTrue(!Modifier.isAbstract(listClass.getModifiers()), "You cannot use an abstract type for AutoConfiguration");
-		
-		Constructor<? extends List<T>> constructor;
-		
+		FileConfiguration yml = new YamlConfiguration();
 		try
 		{
-			constructor = listClass.getConstructor(Collection.class);
-			
-			return constructor.newInstance(data);
-		}
-		catch(Exception e)
+			// Parse the config
+			yml.loadFromString(contents);
+			mLastContents = contents;
+			mLoaded = yml;
+			return load(yml);
+		} catch (InvalidConfigurationException e)
 		{
-			throw new InvalidConfigurationException(e);
+			e.printStackTrace();
+			return false;
 		}
 	}
 	
-	@SuppressWarnings( "unchecked" )
-	public boolean load()
+	/**
+	 * Loads the values from a section of an already parsed config.
+	 * Paths of the fields are relative to the section. Values missing from the section keep their defaults.
+	 * @return False if a value could not be loaded
+	 */
+	public boolean load(ConfigurationSection yml)
 	{
-		FileConfiguration yml = new YamlConfiguration();
 		try
 		{
-			// Make sure the file exists
-			if(!mFile.exists())
-			{
-				mFile.getParentFile().mkdirs();
-				mFile.createNewFile();
-			}
-			
-			// Parse the config
-			yml.load(mFile);
-			for(Field field : getClass().getDeclaredFields())
+			ConfigSchema schema = ConfigSchema.of(getClass());
+			for(ConfigSchema.Binding binding : schema.getBindings())
 			{
-				ConfigField configField = field.getAnnotation(ConfigField.class);
-				if(configField == null)
-					continue;
-				
-				String optionName = configField.name();
-				if(optionName.isEmpty())
-					optionName = field.getName();
-				
-				field.setAccessible(true);
-				
-				String path = (configField.category().isEmpty() ? "" : configField.category() + ".") + optionName; //$NON-NLS-1$ //$NON-NLS-2$
-				if(!yml.contains(path))
+				if(!yml.contains(binding.path))
 				{
-					if(field.get(this) == null)
-						throw new InvalidConfigurationException(path + " is required to be set! Info:\n" + configField.comment()); //$NON-NLS-1$
+					if(binding.get(this) == null)
+						throw new InvalidConfigurationException(binding.path + " is required to be set! Info:\n" + schema.getComments().getOrDefault(binding.path, "")); //$NON-NLS-1$
 				}
 				else
-				{
-					// Parse the value
-					
-					if(field.getType().isArray())
-					{
-						// Integer
-						if(field.getType().getComponentType().equals(Integer.TYPE))
-							field.set(this, yml.getIntegerList(path).toArray(new Integer[0]));
-						
-						// Float
-						else if(field.getType().getComponentType().equals(Float.TYPE))
-							field.set(this, yml.getFloatList(path).toArray(new Float[0]));
-						
-						// Double
-						else if(field.getType().getComponentType().equals(Double.TYPE))
-							field.set(this, yml.getDoubleList(path).toArray(new Double[0]));
-						
-						// Long
-						else if(field.getType().getComponentType().equals(Long.TYPE))
-							field.set(this, yml.getLongList(path).toArray(new Long[0]));
-						
-						// Short
-						else if(field.getType().getComponentType().equals(Short.TYPE))
-							field.set(this, yml.getShortList(path).toArray(new Short[0]));
-						
-						// Boolean
-						else if(field.getType().getComponentType().equals(Boolean.TYPE))
-							field.set(this, yml.getBooleanList(path).toArray(new Boolean[0]));
-						
-						// String
-						else if(field.getType().getComponentType().equals(String.class))
-						{
-							field.set(this, yml.getStringList(path).toArray(new String[0]));
-						}
-						else
-							throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
-					}
-					else if(List.class.isAssignableFrom(field.getType()))
-					{
-						if(field.getGenericType() == null)
-							throw new IllegalArgumentException("Cannot use type List without specifying generic type for AutoConfiguration"); //$NON-NLS-1$
-						
-						Type type = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
-						
-						if(type.equals(Integer.class))
-							field.set(this, newList((Class<? extends List<Integer>>)field.getType(), yml.getIntegerList(path)));
-						else if(type.equals(Float.class))
-							field.set(this, newList((Class<? extends List<Float>>)field.getType(), yml.getFloatList(path)));
-						else if(type.equals(Double.class))
-							field.set(this, newList((Class<? extends List<Double>>)field.getType(), yml.getDoubleList(path)));
-						else if(type.equals(Long.class))
-							field.set(this, newList((Class<? extends List<Long>>)field.getType(), yml.getLongList(path)));
-						else if(type.equals(Short.class))
-							field.set(this, newList((Class<? extends List<Short>>)field.getType(), yml.getShortList(path)));
-						else if(type.equals(Boolean.class))
-							field.set(this, newList((Class<? extends List<Boolean>>)field.getType(), yml.getBooleanList(path)));
-						else if(type.equals(String.class))
-							field.set(this, newList((Class<? extends List<String>>)field.getType(), yml.getStringList(path)));
-						else
-							throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + "<" + type.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-2$
-					}
-					else if(Set.class.isAssignableFrom(field.getType()))
-					{
-						if(field.getGenericType() == null)
-							throw new IllegalArgumentException("Cannot use type set without specifying generic type for AytoConfiguration");
-						
-						Type type = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
-						
-						if(type.equals(Integer.class))
-							field.set(this, newSet((Class<? extends Set<Integer>>)field.getType(), yml.getIntegerList(path)));
-						else if(type.equals(Float.class))
-							field.set(this, newSet((Class<? extends Set<Float>>)field.getType(), yml.getFloatList(path)));
-						else if(type.equals(Double.class))
-							field.set(this, newSet((Class<? extends Set<Double>>)field.getType(), yml.getDoubleList(path)));
-						else if(type.equals(Long.class))
-							field.set(this, newSet((Class<? extends Set<Long>>)field.getType(), yml.getLongList(path)));
-						else if(type.equals(Short.class))
-							field.set(this, newSet((Class<? extends Set<Short>>)field.getType(), yml.getShortList(path)));
-						else if(type.equals(Boolean.class))
-							field.set(this, newSet((Class<? extends Set<Boolean>>)field.getType(), yml.getBooleanList(path)));
-						else if(type.equals(String.class))
-							field.set(this, newSet((Class<? extends Set<String>>)field.getType(), yml.getStringList(path)));
-						else
-							throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + "<" + type.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-2$
-					}
-					else
-					{
-						// Integer
-						if(field.getType().equals(Integer.TYPE))
-							field.setInt(this, yml.getInt(path));
-						
-						// Float
-						else if(field.getType().equals(Float.TYPE))
-							field.setFloat(this, (float)yml.getDouble(path));
-						
-						// Double
-						else if(field.getType().equals(Double.TYPE))
-							field.setDouble(this, yml.getDouble(path));
-						
-						// Long
-						else if(field.getType().equals(Long.TYPE))
-							field.setLong(this, yml.getLong(path));
-						
-						// Short
-						else if(field.getType().equals(Short.TYPE))
-							field.setShort(this, (short)yml.getInt(path));
-						
-						// Boolean
-						else if(field.getType().equals(Boolean.TYPE))
-							field.setBoolean(this, yml.getBoolean(path));
-						
-						// ItemStack
-						else if(field.getType().equals(ItemStack.class))
-							field.set(this, yml.getItemStack(path));
-						
-						// String
-						else if(field.getType().equals(String.class))
-							field.set(this, yml.getString(path));
-						else
-							throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
-					}
-				}
+					binding.load(this, yml);
 			}
 			
 			onPostLoad();
 			
 			return true;
-		} catch (IOException | IllegalAccessException | IllegalArgumentException | InvalidConfigurationException e)
+		} catch (IllegalArgumentException | InvalidConfigurationException e)
 		{
 			e.printStackTrace();
 			return false;
 		}
 	}
 	
+	/**
+	 * Gets a section of the file as last loaded. Keys not bound to fields are included,
+	 * so modules can keep their settings in the same file.
+	 * @return The section, or null if it does not exist
+	 */
+	public ConfigurationSection getLoadedSection(String path)
+	{
+		FileConfiguration loaded = mLoaded;
+		if(loaded == null)
+			return null;
+		
+		return loaded.getConfigurationSection(path);
+	}
+	
+	/**
+	 * @return The contents of the file as last read or written
+	 */
+	String getLastContents()
+	{
+		return mLastContents;
+	}
+	
+	/**
+	 * Saves the config on the calling thread. Nothing is written if the contents would be unchanged.
+	 * @return True if the file is up to date
+	 */
 	public boolean save()
+	{
+		String output = render();
+		if(output == null)
+			return false;
+		
+		if(output.equals(mLastContents))
+			return true;
+		
+		return write(output);
+	}
+	
+	/**
+	 * Saves the config on a background thread. The values are captured on the calling thread,
+	 * only the file write is deferred. Nothing is written if the contents would be unchanged.
+	 * @return A future completing with true once the file is up to date
+	 */
+	public CompletableFuture<Boolean> saveAsync()
+	{
+		String output = render();
+		if(output == null)
+			return CompletableFuture.completedFuture(false);
+		
+		if(output.equals(mLastContents))
+			return CompletableFuture.completedFuture(true);
+		
+		return CompletableFuture.supplyAsync(() -> write(output), getWriter());
+	}
+	
+	/**
+	 * @return The file contents for the current values, or null if they could not be converted
+	 */
+	private String render()
 	{
 		try
 		{
 			onPreSave();
 			
+			// Start from the existing contents so keys that are not bound to fields are kept.
+			// Their comments are dropped here as the bound ones are added back below
 			YamlConfiguration config = new YamlConfiguration();
+			config.options().parseComments(false);
+			if(mLastContents != null)
+				config.loadFromString(mLastContents);
 
 			// Add all the category comments
             Map<String, String> comments = new HashMap<>(mCategoryComments);
 			
 			// Add all the values
-			for(Field field : getClass().getDeclaredFields())
+			ConfigSchema schema = ConfigSchema.of(getClass());
+			comments.putAll(schema.getComments());
+			
+			for(ConfigSchema.Binding binding : schema.getBindings())
 			{
-				ConfigField configField = field.getAnnotation(ConfigField.class);
-				if(configField == null)
-					continue;
-				
-				String optionName = configField.name();
-				if(optionName.isEmpty())
-					optionName = field.getName();
-				
-				field.setAccessible(true);
-				
-				String path = (configField.category().isEmpty() ? "" : configField.category() + ".") + optionName; //$NON-NLS-1$ //$NON-NLS-2$
-
 				// Ensure the secion exists
-				if(!configField.category().isEmpty() && !config.contains(configField.category()))
-					config.createSection(configField.category());
+				if(!binding.category.isEmpty() && !config.contains(binding.category))
+					config.createSection(binding.category);
 				
-				if(field.getType().isArray())
-				{
-					// Integer
-					if(field.getType().getComponentType().equals(Integer.TYPE))
-						config.set(path, Arrays.asList((Integer[])field.get(this)));
-					
-					// Float
-					else if(field.getType().getComponentType().equals(Float.TYPE))
-						config.set(path, Arrays.asList((Float[])field.get(this)));
-					
-					// Double
-					else if(field.getType().getComponentType().equals(Double.TYPE))
-						config.set(path, Arrays.asList((Double[])field.get(this)));
-					
-					// Long
-					else if(field.getType().getComponentType().equals(Long.TYPE))
-						config.set(path, Arrays.asList((Long[])field.get(this)));
-					
-					// Short
-					else if(field.getType().getComponentType().equals(Short.TYPE))
-						config.set(path, Arrays.asList((Short[])field.get(this)));
-					
-					// Boolean
-					else if(field.getType().getComponentType().equals(Boolean.TYPE))
-						config.set(path, Arrays.asList((Boolean[])field.get(this)));
-					
-					// String
-					else if(field.getType().getComponentType().equals(String.class))
-						config.set(path, Arrays.asList((String[])field.get(this)));
-					else
-						throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
-				}
-				else if(List.class.isAssignableFrom(field.getType()))
-				{
-					if(field.getGenericType() == null)
-						throw new IllegalArgumentException("Cannot use type List without specifying generic type for AutoConfiguration"); //$NON-NLS-1$
-					
-					Type type = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
-					
-					if(type.equals(Integer.class) || type.equals(Float.class)
-						|| type.equals(Double.class) || type.equals(Long.class)
-						|| type.equals(Short.class) || type.equals(Boolean.class)
-						|| type.equals(String.class))
-					{
-						config.set(path, field.get(this));
-					}
-					else
-						throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + "<" + type.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				}
-				else if(Set.class.isAssignableFrom(field.getType()))
-				{
-					if(field.getGenericType() == null)
-						throw new IllegalArgumentException("Cannot use type Set without specifying generic type for AutoConfiguration"); //$NON-NLS-1$
-					
-					Type type = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
-					
-					if(type.equals(Integer.class) || type.equals(Float.class)
-						|| type.equals(Double.class) || type.equals(Long.class)
-						|| type.equals(Short.class) || type.equals(Boolean.class)
-						|| type.equals(String.class))
-					{
-						config.set(path, new ArrayList<>((Set<?>) field.get(this)));
-					}
-					else
-						throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + "<" + type.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				}
-				else
-				{
-					// Integer
-					if(field.getType().equals(Integer.TYPE))
-						config.set(path, field.get(this));
-					
-					// Float
-					else if(field.getType().equals(Float.TYPE))
-						config.set(path, field.get(this));
-					
-					// Double
-					else if(field.getType().equals(Double.TYPE))
-						config.set(path, field.get(this));
-					
-					// Long
-					else if(field.getType().equals(Long.TYPE))
-						config.set(path, field.get(this));
-					
-					// Short
-					else if(field.getType().equals(Short.TYPE))
-						config.set(path, field.get(this));
-					
-					// Boolean
-					else if(field.getType().equals(Boolean.TYPE))
-						config.set(path, field.get(this));
-					
-					// ItemStack
-					else if(field.getType().equals(ItemStack.class))
-						config.set(path, field.get(this));
-					
-					// String
-					else if(field.getType().equals(String.class))
-						config.set(path, field.get(this));
-					else
-						throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
-				}
-				
-				// Record the comment
-				if(!configField.comment().isEmpty())
-					comments.put(path,configField.comment());
+				config.set(binding.path, binding.save(this));
 			}
 			
-			String output = config.saveToString();
+			return applyComments(config.saveToString(), comments);
+		} catch (IllegalArgumentException | InvalidConfigurationException e)
+		{
+			e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Copies the YAML output line by line, adding the comment lines above each commented key
+	 */
+	private static String applyComments(String output, Map<String, String> comments)
+	{
+		// Trailing blank lines are dropped
+		int length = output.length();
+		while(length > 0 && output.charAt(length - 1) == '\n')
+			--length;
+		
+		if(length == 0)
+			return output.isEmpty() ? "\n" : ""; //$NON-NLS-1$ //$NON-NLS-2$
+		
+		StringBuilder builder = new StringBuilder(length + comments.size() * 64);
+		String category = ""; //$NON-NLS-1$
+		int start = 0;
+		while(start < length)
+		{
+			int end = output.indexOf('\n', start);
+			if(end < 0 || end > length)
+				end = length;
+			
+			String line = output.substring(start, end);
+			start = end + 1;
 			
-			// Apply comments
-			String category = ""; //$NON-NLS-1$
-			List<String> lines = new ArrayList<>(Arrays.asList(output.split("\n"))); //$NON-NLS-1$
-			for(int l = 0; l < lines.size(); l++)
+			int colon = line.indexOf(':');
+			if(!line.startsWith("#") && !line.trim().startsWith("-") && colon >= 0) //$NON-NLS-1$ //$NON-NLS-2$
 			{
-				String line = lines.get(l);
-				
-				if(line.startsWith("#")) //$NON-NLS-1$
-					continue;
-				
-				if(line.trim().startsWith("-")) //$NON-NLS-1$
-					continue;
-				
-				if(!line.contains(":")) //$NON-NLS-1$
-					continue;
-				
-				String path = ""; //$NON-NLS-1$
-				line = line.substring(0, line.indexOf(":")); //$NON-NLS-1$
+				String key = line.substring(0, colon);
+				String path;
 				
-				if(line.startsWith("  ")) //$NON-NLS-1$
-					path = category + "." + line.substring(2).trim(); //$NON-NLS-1$
+				if(key.startsWith("  ")) //$NON-NLS-1$
+					path = category + "." + key.substring(2).trim(); //$NON-NLS-1$
 				else
 				{
-					category = line.trim();
-					path = line.trim();
+					category = key.trim();
+					path = category;
 				}
 				
-				if(comments.containsKey(path))
+				String comment = comments.get(path);
+				if(comment != null)
 				{
-					String indent = ""; //$NON-NLS-1$
-					for(int i = 0; i < line.length(); i++)
-					{
-						if(line.charAt(i) == ' ')
-							indent += " "; //$NON-NLS-1$
-						else
-							break;
-					}
+					int indent = 0;
+					while(indent < key.length() && key.charAt(indent) == ' ')
+						++indent;
 					
 					// Add in the comment lines
-					String[] commentLines = comments.get(path).split("\n"); //$NON-NLS-1$
-					lines.add(l++, ""); //$NON-NLS-1$
-					for(int i = 0; i < commentLines.length; i++)
+					builder.append('\n');
+					for(String commentLine : comment.split("\n")) //$NON-NLS-1$
 					{
-						commentLines[i] = indent + "# " + commentLines[i]; //$NON-NLS-1$
-						lines.add(l++,commentLines[i]);
+						for(int i = 0; i < indent; ++i)
+							builder.append(' ');
+						builder.append("# ").append(commentLine).append('\n'); //$NON-NLS-1$
 					}
 				}
 			}
-			output = ""; //$NON-NLS-1$
-			for(String line : lines)
-				output += line + "\n"; //$NON-NLS-1$
 			
-			FileWriter writer = new FileWriter(mFile);
-			writer.write(output);
-			writer.close();
+			builder.append(line).append('\n');
+		}
+		
+		return builder.toString();
+	}
+	
+	private boolean write(String output)
+	{
+		if(!writeAtomic(mFile, output.getBytes(StandardCharsets.UTF_8)))
+			return false;
+		
+		mLastContents = output;
+		return true;
+	}
+	
+	/**
+	 * Writes a file on the background writer used for config saves
+	 * @return A future completing with true once the file has been written
+	 */
+	static CompletableFuture<Boolean> writeAsync(File file, byte[] output)
+	{
+		return CompletableFuture.supplyAsync(() -> writeAtomic(file, output), getWriter());
+	}
+	
+	/**
+	 * Writes the file through a temporary file that is atomically moved over it,
+	 * so a failed or interrupted write never leaves a partial file behind
+	 */
+	private static boolean writeAtomic(File file, byte[] output)
+	{
+		Path target = file.toPath();
+		Path temp = null;
+		try
+		{
+			Files.createDirectories(target.toAbsolutePath().getParent());
+			temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp"); //$NON-NLS-1$
+			Files.write(temp, output);
+			
+			try
+			{
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch(AtomicMoveNotSupportedException e)
+			{
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			
 			return true;
-		} catch (IllegalArgumentException | IOException | IllegalAccessException e)
+		}
+		catch(IOException e)
 		{
 			e.printStackTrace();
+			
+			if(temp != null)
+			{
+				try
+				{
+					Files.deleteIfExists(temp);
+				}
+				catch(IOException ignored)
+				{
+				}
+			}
 		}
 		return false;
 	}
+	
+	private static synchronized ExecutorService getWriter()
+	{
+		if(sWriter == null)
+		{
+			sWriter = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "Pansentials Config Writer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		return sWriter;
+	}
+	
+	/**
+	 * Waits for all pending asynchronous saves to finish. Should be called when the plugin is disabled.
+	 * @return False if the writes did not finish in time
+	 */
+	static synchronized boolean flushWrites()
+	{
+		if(sWriter == null)
+			return true;
+		
+		sWriter.shutdown();
+		try
+		{
+			return sWriter.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		finally
+		{
+			sWriter = null;
+		}
+	}
 }
@@ -1,7 +1,6 @@
 package au.com.addstar.pansentials;
 
 import org.bukkit.command.CommandExecutor;
-import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabCompleter;
 
 public abstract class CommandModule extends AbstractModule implements CommandExecutor, TabCompleter
@@ -17,27 +16,6 @@ public abstract class CommandModule extends AbstractModule implements CommandExe
 	public void onEnable()
 	{
 		for (String name : mCommands)
-		{
-			PluginCommand cmd = getPlugin().getCommand(name);
-			if (cmd != null)
-			{
-				cmd.setExecutor(this);
-				cmd.setTabCompleter(this);
-			}
-		}
-	}
-	
-	@Override
-	public void onDisable()
-	{
-		for (String name : mCommands)
-		{
-			PluginCommand cmd = getPlugin().getCommand(name);
-			if (cmd != null)
-			{
-				cmd.setExecutor(null);
-				cmd.setTabCompleter(null);
-			}
-		}
+			getContext().bindCommand(name, this, this);
 	}
 }
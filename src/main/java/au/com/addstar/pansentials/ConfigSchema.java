@@ -0,0 +1,357 @@
+package au.com.addstar.pansentials;
+
+import org.apache.commons.lang3.Validate;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * The resolved {@link ConfigField} bindings of an {@link AutoConfig} class.<br/>
+ * Fields, paths, accessors and codecs are worked out once per class and reused for every load and save,
+ * including those done when modules are reloaded.
+ * See {@code AutoConfigBenchmark} for a comparison with resolving them by reflection on every call.
+ */
+final class ConfigSchema
+{
+	private static final ClassValue<ConfigSchema> sSchemas = new ClassValue<ConfigSchema>()
+	{
+		@Override
+		protected ConfigSchema computeValue( Class<?> type )
+		{
+			return new ConfigSchema(type);
+		}
+	};
+	
+	private static final Map<Class<?>, BiFunction<ConfigurationSection, String, List<?>>> sListReaders = new HashMap<>();
+	
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	static
+	{
+		addListReader(ConfigurationSection::getIntegerList, Integer.class, Integer.TYPE);
+		addListReader(ConfigurationSection::getFloatList, Float.class, Float.TYPE);
+		addListReader(ConfigurationSection::getDoubleList, Double.class, Double.TYPE);
+		addListReader(ConfigurationSection::getLongList, Long.class, Long.TYPE);
+		addListReader(ConfigurationSection::getShortList, Short.class, Short.TYPE);
+		addListReader(ConfigurationSection::getBooleanList, Boolean.class, Boolean.TYPE);
+		addListReader(ConfigurationSection::getStringList, String.class);
+	}
+	
+	private static void addListReader(BiFunction<ConfigurationSection, String, List<?>> reader, Class<?>... types)
+	{
+		for(Class<?> type : types)
+			sListReaders.put(type, reader);
+	}
+	
+	private final List<Binding> mBindings;
+	private final Map<String, String> mComments;
+	
+	private ConfigSchema(Class<?> type)
+	{
+		MethodHandles.Lookup lookup;
+		try
+		{
+			lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+		}
+		catch(IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("Cannot access " + type.getName() + " for AutoConfiguration", e);
+		}
+		
+		List<Binding> bindings = new ArrayList<>();
+		Map<String, String> comments = new LinkedHashMap<>();
+		
+		for(Field field : type.getDeclaredFields())
+		{
+			ConfigField configField = field.getAnnotation(ConfigField.class);
+			if(configField == null)
+				continue;
+			
+			String optionName = configField.name();
+			if(optionName.isEmpty())
+				optionName = field.getName();
+			
+			String path = (configField.category().isEmpty() ? "" : configField.category() + ".") + optionName; //$NON-NLS-1$ //$NON-NLS-2$
+			
+			// Adapted to erased types once here so every access can use invokeExact
+			MethodHandle getter;
+			MethodHandle setter;
+			try
+			{
+				getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+				setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+			}
+			catch(IllegalAccessException e)
+			{
+				throw new IllegalArgumentException("Cannot access field " + field.getName() + " for AutoConfiguration", e);
+			}
+			
+			bindings.add(new Binding(path, configField.category(), getter, setter, codecFor(field)));
+			
+			if(!configField.comment().isEmpty())
+				comments.put(path, configField.comment());
+		}
+		
+		mBindings = Collections.unmodifiableList(bindings);
+		mComments = Collections.unmodifiableMap(comments);
+	}
+	
+	/**
+	 * @return The schema of the given config class, built on first use
+	 */
+	static ConfigSchema of(Class<? extends AutoConfig> type)
+	{
+		return sSchemas.get(type);
+	}
+	
+	List<Binding> getBindings()
+	{
+		return mBindings;
+	}
+	
+	/**
+	 * @return The comments of all fields by path
+	 */
+	Map<String, String> getComments()
+	{
+		return mComments;
+	}
+	
+	private static Codec codecFor(Field field)
+	{
+		Class<?> type = field.getType();
+		
+		if(type.isArray())
+		{
+			Class<?> component = type.getComponentType();
+			BiFunction<ConfigurationSection, String, List<?>> reader = sListReaders.get(component);
+			if(reader == null)
+				throw new IllegalArgumentException("Cannot use type " + type.getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
+			
+			return new ArrayCodec(component, reader);
+		}
+		else if(List.class.isAssignableFrom(type) || Set.class.isAssignableFrom(type))
+		{
+			boolean isSet = Set.class.isAssignableFrom(type);
+			if(!(field.getGenericType() instanceof ParameterizedType))
+				throw new IllegalArgumentException("Cannot use type " + type.getSimpleName() + " without specifying generic type for AutoConfiguration"); //$NON-NLS-1$
+			
+			Type elementType = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
+			BiFunction<ConfigurationSection, String, List<?>> reader = elementType instanceof Class ? sListReaders.get(elementType) : null;
+			if(reader == null || ((Class<?>)elementType).isPrimitive())
+				throw new IllegalArgumentException("Cannot use type " + type.getSimpleName() + "<" + elementType.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			
+			Validate.isTrue(!Modifier.isAbstract(type.getModifiers()), "You cannot use an abstract type for AutoConfiguration");
+			
+			MethodHandle constructor;
+			try
+			{
+				constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class, Collection.class));
+			}
+			catch(NoSuchMethodException | IllegalAccessException e)
+			{
+				throw new IllegalArgumentException("Cannot use type " + type.getSimpleName() + " for AutoConfiguration, it has no public copy constructor", e); //$NON-NLS-1$
+			}
+			
+			return new CollectionCodec(reader, constructor, isSet);
+		}
+		else if(type.equals(Integer.TYPE))
+			return scalar(ConfigurationSection::getInt);
+		else if(type.equals(Float.TYPE))
+			return scalar((yml, path) -> (float)yml.getDouble(path));
+		else if(type.equals(Double.TYPE))
+			return scalar(ConfigurationSection::getDouble);
+		else if(type.equals(Long.TYPE))
+			return scalar(ConfigurationSection::getLong);
+		else if(type.equals(Short.TYPE))
+			return scalar((yml, path) -> (short)yml.getInt(path));
+		else if(type.equals(Boolean.TYPE))
+			return scalar(ConfigurationSection::getBoolean);
+		else if(type.equals(ItemStack.class))
+			return scalar(ConfigurationSection::getItemStack);
+		else if(type.equals(String.class))
+			return scalar(ConfigurationSection::getString);
+		
+		throw new IllegalArgumentException("Cannot use type " + type.getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+	
+	private static Codec scalar(BiFunction<ConfigurationSection, String, Object> reader)
+	{
+		return new Codec()
+		{
+			@Override
+			public Object read( ConfigurationSection yml, String path )
+			{
+				return reader.apply(yml, path);
+			}
+			
+			@Override
+			public Object write( Object value )
+			{
+				return value;
+			}
+		};
+	}
+	
+	/**
+	 * A single config field
+	 */
+	static final class Binding
+	{
+		final String path;
+		final String category;
+		
+		private final MethodHandle mGetter;
+		private final MethodHandle mSetter;
+		private final Codec mCodec;
+		
+		private Binding(String path, String category, MethodHandle getter, MethodHandle setter, Codec codec)
+		{
+			this.path = path;
+			this.category = category;
+			mGetter = getter;
+			mSetter = setter;
+			mCodec = codec;
+		}
+		
+		Object get(Object instance)
+		{
+			try
+			{
+				return (Object)mGetter.invokeExact(instance);
+			}
+			catch(RuntimeException | Error e)
+			{
+				throw e;
+			}
+			catch(Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		/**
+		 * Reads the value at this binding's path and stores it in the field
+		 */
+		void load(Object instance, ConfigurationSection yml) throws InvalidConfigurationException
+		{
+			Object value = mCodec.read(yml, path);
+			try
+			{
+				mSetter.invokeExact(instance, value);
+			}
+			catch(RuntimeException | Error e)
+			{
+				throw e;
+			}
+			catch(Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		/**
+		 * @return The value of the field, converted to something YAML can store
+		 */
+		Object save(Object instance)
+		{
+			return mCodec.write(get(instance));
+		}
+	}
+	
+	private interface Codec
+	{
+		Object read(ConfigurationSection yml, String path) throws InvalidConfigurationException;
+		
+		Object write(Object value);
+	}
+	
+	private static final class ArrayCodec implements Codec
+	{
+		private final Class<?> mComponent;
+		private final BiFunction<ConfigurationSection, String, List<?>> mReader;
+		
+		ArrayCodec(Class<?> component, BiFunction<ConfigurationSection, String, List<?>> reader)
+		{
+			mComponent = component;
+			mReader = reader;
+		}
+		
+		@Override
+		public Object read( ConfigurationSection yml, String path )
+		{
+			List<?> values = mReader.apply(yml, path);
+			Object array = Array.newInstance(mComponent, values.size());
+			for(int i = 0; i < values.size(); ++i)
+				Array.set(array, i, values.get(i));
+			
+			return array;
+		}
+		
+		@Override
+		public Object write( Object value )
+		{
+			int length = Array.getLength(value);
+			List<Object> values = new ArrayList<>(length);
+			for(int i = 0; i < length; ++i)
+				values.add(Array.get(value, i));
+			
+			return values;
+		}
+	}
+	
+	private static final class CollectionCodec implements Codec
+	{
+		private final BiFunction<ConfigurationSection, String, List<?>> mReader;
+		private final MethodHandle mConstructor;
+		private final boolean mIsSet;
+		
+		CollectionCodec(BiFunction<ConfigurationSection, String, List<?>> reader, MethodHandle constructor, boolean isSet)
+		{
+			mReader = reader;
+			mConstructor = constructor;
+			mIsSet = isSet;
+		}
+		
+		@Override
+		public Object read( ConfigurationSection yml, String path ) throws InvalidConfigurationException
+		{
+			try
+			{
+				return mConstructor.invoke(mReader.apply(yml, path));
+			}
+			catch(Throwable e)
+			{
+				throw new InvalidConfigurationException(e);
+			}
+		}
+		
+		@Override
+		public Object write( Object value )
+		{
+			if(mIsSet)
+				return new ArrayList<>((Set<?>)value);
+			
+			return value;
+		}
+	}
+}
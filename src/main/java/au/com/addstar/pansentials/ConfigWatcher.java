@@ -0,0 +1,200 @@
+package au.com.addstar.pansentials;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches files in the plugin data folder and hands their new contents to a handler when they are edited.<br/>
+ * Events are debounced so an editor saving in several steps only causes one reload, and contents that
+ * match what was last handled or written by the plugin itself are ignored. Handlers are called on
+ * a background thread and must not use the Bukkit API directly.
+ */
+class ConfigWatcher
+{
+	private static final long DEBOUNCE_MILLIS = 500;
+	
+	private final Path mFolder;
+	private final Logger mLogger;
+	private final Map<String, Consumer<String>> mHandlers;
+	private final Map<String, byte[]> mKnownHashes;
+	private final Map<String, ScheduledFuture<?>> mPending;
+	
+	private WatchService mWatchService;
+	private Thread mThread;
+	private ScheduledExecutorService mExecutor;
+	
+	ConfigWatcher(Path folder, Logger logger)
+	{
+		mFolder = folder;
+		mLogger = logger;
+		mHandlers = new ConcurrentHashMap<>();
+		mKnownHashes = new ConcurrentHashMap<>();
+		mPending = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Sets the handler for a file in the watched folder. Must be called before {@link #start()}
+	 * @param fileName The name of the file
+	 * @param handler Receives the new contents of the file
+	 */
+	void watch(String fileName, Consumer<String> handler)
+	{
+		mHandlers.put(fileName, handler);
+	}
+	
+	/**
+	 * Records contents the plugin wrote itself so the resulting change event is ignored
+	 */
+	void markKnown(String fileName, String contents)
+	{
+		if(contents != null)
+			mKnownHashes.put(fileName, hash(contents));
+	}
+	
+	void start() throws IOException
+	{
+		// Files already marked may have a pending write of those contents, so keep their hash
+		for(String fileName : mHandlers.keySet())
+		{
+			Path file = mFolder.resolve(fileName);
+			if(!mKnownHashes.containsKey(fileName) && Files.exists(file))
+				markKnown(fileName, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		}
+		
+		mWatchService = mFolder.getFileSystem().newWatchService();
+		mFolder.register(mWatchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		
+		mExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, "Pansentials Config Reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		mThread = new Thread(this::run, "Pansentials Config Watcher");
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+	
+	void stop()
+	{
+		if(mWatchService == null)
+			return;
+		
+		try
+		{
+			mWatchService.close();
+		}
+		catch(IOException e)
+		{
+			// Nothing can be done
+		}
+		
+		mExecutor.shutdownNow();
+		mWatchService = null;
+	}
+	
+	private void run()
+	{
+		WatchService service = mWatchService;
+		try
+		{
+			while(true)
+			{
+				WatchKey key = service.take();
+				for(WatchEvent<?> event : key.pollEvents())
+				{
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW)
+					{
+						for(String fileName : mHandlers.keySet())
+							schedule(fileName);
+						continue;
+					}
+					
+					String fileName = event.context().toString();
+					if(mHandlers.containsKey(fileName))
+						schedule(fileName);
+				}
+				
+				if(!key.reset())
+					break;
+			}
+		}
+		catch(InterruptedException | ClosedWatchServiceException e)
+		{
+			// Stopped
+		}
+	}
+	
+	private void schedule(String fileName)
+	{
+		ScheduledFuture<?> future = mExecutor.schedule(() -> reload(fileName), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+		ScheduledFuture<?> previous = mPending.put(fileName, future);
+		if(previous != null)
+			previous.cancel(false);
+	}
+	
+	private void reload(String fileName)
+	{
+		String contents;
+		try
+		{
+			Path file = mFolder.resolve(fileName);
+			if(!Files.exists(file))
+				return;
+			
+			contents = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		}
+		catch(IOException e)
+		{
+			mLogger.log(Level.WARNING, "Failed to read " + fileName, e);
+			return;
+		}
+		
+		byte[] hash = hash(contents);
+		if(Arrays.equals(hash, mKnownHashes.get(fileName)))
+			return;
+		
+		mKnownHashes.put(fileName, hash);
+		
+		try
+		{
+			mHandlers.get(fileName).accept(contents);
+		}
+		catch(RuntimeException e)
+		{
+			mLogger.log(Level.SEVERE, "Failed to reload " + fileName, e);
+		}
+	}
+	
+	private static byte[] hash(String contents)
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256").digest(contents.getBytes(StandardCharsets.UTF_8));
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+}
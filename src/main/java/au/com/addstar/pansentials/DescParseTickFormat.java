@@ -1,6 +1,5 @@
 package au.com.addstar.pansentials;
 
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 
@@ -24,13 +23,30 @@ public final class DescParseTickFormat
 	private static final int ticksPerHour = 1000;
 	private static final double ticksPerMinute = 1000d / 60d;
 	private static final double ticksPerSecond = 1000d / 60d / 60d;
-	private static final SimpleDateFormat SDFTwentyFour = new SimpleDateFormat("HH:mm", Locale.ENGLISH);
-	private static final SimpleDateFormat SDFTwelve = new SimpleDateFormat("h:mm aa", Locale.ENGLISH);
+	private static final int minutesPerDay = 24 * 60;
+
+	// The minute of the day shown for each tick of the day, and the text of each minute in both formats.
+	// Built once so formatting is a pair of array reads, safe from any thread
+	private static final short[] tickToMinute = new short[ticksPerDay];
+	private static final String[] minuteToTwentyFour = new String[minutesPerDay];
+	private static final String[] minuteToTwelve = new String[minutesPerDay];
 
 	static
 	{
-		SDFTwentyFour.setTimeZone(TimeZone.getTimeZone("GMT"));
-		SDFTwelve.setTimeZone(TimeZone.getTimeZone("GMT"));
+		for (int tick = 0; tick < ticksPerDay; ++tick)
+		{
+			tickToMinute[tick] = (short)ticksToMinute(tick);
+		}
+
+		for (int minute = 0; minute < minutesPerDay; ++minute)
+		{
+			final int hours = minute / 60;
+			final String minutes = (minute % 60 < 10 ? ":0" : ":") + (minute % 60);
+			final int hours12 = (hours % 12 == 0 ? 12 : hours % 12);
+
+			minuteToTwentyFour[minute] = (hours < 10 ? "0" : "") + hours + minutes;
+			minuteToTwelve[minute] = hours12 + minutes + (hours < 12 ? " AM" : " PM");
+		}
 
 		nameToTicks.put("sunrise", 23000);
 		nameToTicks.put("dawn", 23000);
@@ -217,61 +233,41 @@ public final class DescParseTickFormat
 		return (ticks % ticksPerDay) + "ticks";
 	}
 
+	/**
+	 * @return The time of day of the ticks as "HH:mm"
+	 */
 	public static String format24(final long ticks)
 	{
-		synchronized (SDFTwentyFour)
-		{
-			return formatDateFormat(ticks, SDFTwentyFour);
-		}
+		return minuteToTwentyFour[tickToMinute[(int)Math.floorMod(ticks, ticksPerDay)]];
 	}
 
+	/**
+	 * @return The time of day of the ticks as "h:mm AM" or "h:mm PM"
+	 */
 	public static String format12(final long ticks)
 	{
-		synchronized (SDFTwelve)
-		{
-			return formatDateFormat(ticks, SDFTwelve);
-		}
-	}
-
-	private static String formatDateFormat(final long ticks, final SimpleDateFormat format)
-	{
-		final Date date = ticksToDate(ticks);
-		return format.format(date);
+		return minuteToTwelve[tickToMinute[(int)Math.floorMod(ticks, ticksPerDay)]];
 	}
 
-	private static Date ticksToDate(long ticks)
+	private static int ticksToMinute(int ticks)
 	{
-		// Assume the server time starts at 0. It would start on a day.
-		// But we will simulate that the server started with 0 at midnight.
-		ticks = ticks - ticksAtMidnight + ticksPerDay;
-
-		// How many ingame days have passed since the server start?
-		final long days = ticks / ticksPerDay;
-		ticks -= days * ticksPerDay;
+		// Tick 0 is 6:00, the server is simulated to have started at midnight
+		ticks = (ticks - ticksAtMidnight + ticksPerDay) % ticksPerDay;
 
-		// How many hours on the last day?
-		final long hours = ticks / ticksPerHour;
+		// How many hours on the day?
+		final int hours = ticks / ticksPerHour;
 		ticks -= hours * ticksPerHour;
 
-		// How many minutes on the last day?
-		final long minutes = (long)Math.floor(ticks / ticksPerMinute);
+		// How many minutes on the day?
+		final int minutes = (int)Math.floor(ticks / ticksPerMinute);
 		final double dticks = ticks - minutes * ticksPerMinute;
 
-		// How many seconds on the last day?
-		final long seconds = (long)Math.floor(dticks / ticksPerSecond);
-
-		// Now we create an english GMT calendar (We wan't no daylight savings)
-		final Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.ENGLISH);
-		cal.setLenient(true);
-
-		// And we set the time to 0! And append the time that passed!
-		cal.set(0, Calendar.JANUARY, 1, 0, 0, 0);
-		cal.add(Calendar.DAY_OF_YEAR, (int)days);
-		cal.add(Calendar.HOUR_OF_DAY, (int)hours);
-		cal.add(Calendar.MINUTE, (int)minutes);
-		cal.add(Calendar.SECOND, (int)seconds + 1); // To solve rounding errors.
+		// How many seconds on the day?
+		final int seconds = (int)Math.floor(dticks / ticksPerSecond);
 
-		return cal.getTime();
+		// One second is added to solve rounding errors, which may carry into the next minute or day
+		final int totalSeconds = ((hours * 60) + minutes) * 60 + seconds + 1;
+		return (totalSeconds / 60) % minutesPerDay;
 	}
 
 	private DescParseTickFormat()
@@ -0,0 +1,220 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A binary copy of the merged format.yml, so enabling the plugin does not need to parse
+ * the YAML of format.yml and of the bundled defaults. A snapshot is only used when its key,
+ * a hash of the plugin version and the exact bytes of both sources, still matches.
+ */
+final class FormatSnapshot
+{
+	private static final int MAGIC = 0x50534654; // PSFT
+	private static final int VERSION = 1;
+
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_INT = 2;
+	private static final byte TYPE_LONG = 3;
+	private static final byte TYPE_DOUBLE = 4;
+	private static final byte TYPE_BOOLEAN = 5;
+	private static final byte TYPE_LIST = 6;
+
+	private FormatSnapshot()
+	{
+	}
+
+	/**
+	 * Computes the key of a snapshot
+	 * @param pluginVersion The version of the plugin, which decides how the sources are merged
+	 * @param sources The raw contents of every file the snapshot is built from
+	 * @return The SHA-256 hash of all inputs
+	 */
+	static byte[] key(String pluginVersion, byte[]... sources)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(pluginVersion.getBytes(StandardCharsets.UTF_8));
+			for(byte[] source : sources)
+			{
+				// Include the lengths so the boundaries between sources are part of the hash
+				digest.update(new byte[] {0, (byte)(source.length >>> 24), (byte)(source.length >>> 16), (byte)(source.length >>> 8), (byte)source.length});
+				digest.update(source);
+			}
+			return digest.digest();
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Reads a snapshot
+	 * @param file The snapshot file
+	 * @param key The key the snapshot must have been written with
+	 * @return The format, or null if there is no snapshot, it was written for other sources, or it is unreadable
+	 */
+	static YamlConfiguration read(File file, byte[] key)
+	{
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))
+		{
+			if(input.readInt() != MAGIC || input.readInt() != VERSION)
+				return null;
+
+			byte[] storedKey = new byte[input.readUnsignedByte()];
+			input.readFully(storedKey);
+			if(!Arrays.equals(storedKey, key))
+				return null;
+
+			YamlConfiguration config = new YamlConfiguration();
+			int count = input.readInt();
+			for(int i = 0; i < count; ++i)
+			{
+				String path = input.readUTF();
+				config.set(path, readValue(input));
+			}
+
+			return config;
+		}
+		catch(NoSuchFileException e)
+		{
+			return null;
+		}
+		catch(IOException | RuntimeException e)
+		{
+			MasterPlugin.getInstance().getLogger().warning("Ignoring unreadable format snapshot: " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Encodes a snapshot of a format
+	 * @param config The merged format
+	 * @param key The key of the sources the format was built from
+	 * @return The snapshot contents, or null if the format holds values a snapshot cannot store
+	 */
+	static byte[] encode(ConfigurationSection config, byte[] key)
+	{
+		List<String> paths = new ArrayList<>();
+		for(String path : config.getKeys(true))
+		{
+			if(!config.isConfigurationSection(path))
+				paths.add(path);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream output = new DataOutputStream(bytes))
+		{
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeByte(key.length);
+			output.write(key);
+
+			output.writeInt(paths.size());
+			for(String path : paths)
+			{
+				output.writeUTF(path);
+				if(!writeValue(output, config.get(path)))
+					return null;
+			}
+		}
+		catch(IOException e)
+		{
+			// Strings too long for the format
+			return null;
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static boolean writeValue(DataOutputStream output, Object value) throws IOException
+	{
+		if(value instanceof String)
+		{
+			output.writeByte(TYPE_STRING);
+			output.writeUTF((String)value);
+		}
+		else if(value instanceof Integer)
+		{
+			output.writeByte(TYPE_INT);
+			output.writeInt((Integer)value);
+		}
+		else if(value instanceof Long)
+		{
+			output.writeByte(TYPE_LONG);
+			output.writeLong((Long)value);
+		}
+		else if(value instanceof Double)
+		{
+			output.writeByte(TYPE_DOUBLE);
+			output.writeDouble((Double)value);
+		}
+		else if(value instanceof Boolean)
+		{
+			output.writeByte(TYPE_BOOLEAN);
+			output.writeBoolean((Boolean)value);
+		}
+		else if(value instanceof List)
+		{
+			List<?> list = (List<?>)value;
+			output.writeByte(TYPE_LIST);
+			output.writeInt(list.size());
+			for(Object element : list)
+			{
+				if(!writeValue(output, element))
+					return false;
+			}
+		}
+		else
+			return false;
+
+		return true;
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException
+	{
+		byte type = input.readByte();
+		switch(type)
+		{
+		case TYPE_STRING:
+			return input.readUTF();
+		case TYPE_INT:
+			return input.readInt();
+		case TYPE_LONG:
+			return input.readLong();
+		case TYPE_DOUBLE:
+			return input.readDouble();
+		case TYPE_BOOLEAN:
+			return input.readBoolean();
+		case TYPE_LIST:
+		{
+			int size = input.readInt();
+			if(size < 0 || size > input.available())
+				throw new IOException("Invalid list size " + size);
+			List<Object> list = new ArrayList<>(size);
+			for(int i = 0; i < size; ++i)
+				list.add(readValue(input));
+			return list;
+		}
+		default:
+			throw new IOException("Unknown value type " + type);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placeholder executor and tab completer bound to the commands of a module that
+ * has not been enabled yet. The first use, or the first tab completion, enables the
+ * module and hands the command over to whatever the module bound in its onEnable.
+ */
+class LazyModuleExecutor implements CommandExecutor, TabCompleter
+{
+	private final MasterPlugin mPlugin;
+	private final String mModule;
+	
+	LazyModuleExecutor(MasterPlugin plugin, String module)
+	{
+		mPlugin = plugin;
+		mModule = module;
+	}
+	
+	@Override
+	public boolean onCommand( CommandSender sender, Command command, String label, String[] args )
+	{
+		if(!mPlugin.activateModule(mModule))
+		{
+			sender.sendMessage(ChatColor.RED + "That command is not available right now. See console for details.");
+			return true;
+		}
+		
+		if(!(command instanceof PluginCommand))
+			return true;
+		
+		CommandExecutor executor = ((PluginCommand)command).getExecutor();
+		if(executor == this || executor == mPlugin)
+			return true;
+		
+		return executor.onCommand(sender, command, label, args);
+	}
+	
+	@Override
+	public List<String> onTabComplete( CommandSender sender, Command command, String label, String[] args )
+	{
+		if(!mPlugin.activateModule(mModule))
+			return Collections.emptyList();
+		
+		if(!(command instanceof PluginCommand))
+			return null;
+		
+		PluginCommand pluginCommand = (PluginCommand)command;
+		TabCompleter completer = pluginCommand.getTabCompleter();
+		if(completer != null && completer != this)
+			return completer.onTabComplete(sender, command, label, args);
+		
+		// Like Bukkit, fall back to an executor that is also a completer
+		CommandExecutor executor = pluginCommand.getExecutor();
+		if(executor != this && executor instanceof TabCompleter)
+			return ((TabCompleter)executor).onTabComplete(sender, command, label, args);
+		
+		return null;
+	}
+}
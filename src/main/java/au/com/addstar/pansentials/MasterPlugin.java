@@ -1,29 +1,59 @@
 package au.com.addstar.pansentials;
 
+import au.com.addstar.pansentials.metrics.MetricsServer;
+import au.com.addstar.pansentials.modules.*;
+import au.com.addstar.pansentials.timings.TimedCommandExecutor;
+import au.com.addstar.pansentials.timings.Timings;
+import au.com.addstar.pansentials.timings.TimingsLog;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class MasterPlugin extends JavaPlugin
 {
 	private final HashMap<String, Module> mLoadedModules;
+	private final HashSet<String> mPendingModules;
+	private final HashMap<String, ModuleContext> mContexts;
+	private final ConcurrentHashMap<String, ModuleStats> mModuleStats;
 
-	private final HashMap<String, ModuleDefinition> mAvailableModules;
 	private final HashMap<String, ModuleDefinition> mAvailableModulesByName;
 	
-	private Config mConfig;
-	private FileConfiguration format;
+	private volatile Config mConfig;
+	private TimingsLog mTimingsLog;
+	private MetricsServer mMetricsServer;
+	private ConfigWatcher mWatcher;
+	private volatile FileConfiguration format;
+	private MessageBundles mMessages;
+	private StandableIndex mStandableIndex;
 	
 	private static MasterPlugin mInstance;
 	public static MasterPlugin getInstance()
@@ -33,40 +63,107 @@ public class MasterPlugin extends JavaPlugin
 	
 	public MasterPlugin()
 	{
-		mAvailableModules = new HashMap<>();
 		mAvailableModulesByName = new HashMap<>();
 
 		mLoadedModules = new HashMap<>();
+		mPendingModules = new HashSet<>();
+		mContexts = new HashMap<>();
+		mModuleStats = new ConcurrentHashMap<>();
 	}
 	
 	private void registerModules()
 	{
-		registerModule("FlyModule", "au.com.addstar.pansentials.modules.FlyModule");
-		registerModule("HatModule", "au.com.addstar.pansentials.modules.HatModule");
-		registerModule("WorkbenchModule", "au.com.addstar.pansentials.modules.WorkbenchModule");
-		registerModule("HealModule", "au.com.addstar.pansentials.modules.HealModule");
-		registerModule("SpeedModule", "au.com.addstar.pansentials.modules.SpeedModule");
-		registerModule("ExpModule", "au.com.addstar.pansentials.modules.ExpModule");
-		registerModule("WhoIsModule", "au.com.addstar.pansentials.modules.WhoIsModule");
-		registerModule("DropItemModule", "au.com.addstar.pansentials.modules.DropItemModule");
-		registerModule("EnchantModule", "au.com.addstar.pansentials.modules.EnchantModule");
-		registerModule("GamemodeModule", "au.com.addstar.pansentials.modules.GamemodeModule");
-		registerModule("ModeModule", "au.com.addstar.pansentials.modules.MoreModule");
-		registerModule("RepairModule", "au.com.addstar.pansentials.modules.RepairModule");
-		registerModule("GodModule", "au.com.addstar.pansentials.modules.GodModule");
-		registerModule("TimeModule", "au.com.addstar.pansentials.modules.TimeModule");
-		registerModule("SmiteModule", "au.com.addstar.pansentials.modules.SmiteModule");
-		registerModule("StackModule", "au.com.addstar.pansentials.modules.StackModule");
-		registerModule("PowerTool", "au.com.addstar.pansentials.modules.PowertoolModule");
-		registerModule("SpawnMob", "au.com.addstar.pansentials.modules.SpawnMobModule");
-		registerModule("Kill", "au.com.addstar.pansentials.modules.KillModule");
-		registerModule("Near", "au.com.addstar.pansentials.modules.NearModule");
-		registerModule("Calc", "au.com.addstar.pansentials.modules.CalcModule");
-		registerModule("Burn", "au.com.addstar.pansentials.modules.BurnCommand");
-		registerModule("ItemAttribute", "au.com.addstar.pansentials.modules.ItemAttributeModule");
-		registerModule("hardmode", "au.com.addstar.pansentials.modules.HardMode");
-		registerModule("PlayerListModule", "au.com.addstar.pansentials.modules.PlayerListModule");
-		//TODO: Register additional modules here
+		// FlyModule lists no commands so it is never deferred; its join and world change handlers must always run
+		registerModule("FlyModule", commands());
+		registerModule("HatModule", commands("hat"));
+		registerModule("WorkbenchModule", commands("workbench"));
+		registerModule("HealModule", commands("heal", "feed"));
+		registerModule("SpeedModule", commands("speed"));
+		registerModule("ExpModule", commands("exp"));
+		registerModule("WhoIsModule", commands("whois"));
+		registerModule("DropItemModule", commands("dropitem"));
+		registerModule("EnchantModule", commands("enchant"), "Monolith");
+		registerModule("GamemodeModule", commands("gamemode"));
+		registerModule("ModeModule", commands("more"));
+		registerModule("RepairModule", commands("repair"));
+		registerModule("GodModule", commands("god"));
+		registerModule("TimeModule", commands("time", "day", "ptime"));
+		registerModule("SmiteModule", commands("smite"));
+		registerModule("StackModule", commands("stack"));
+		registerModule("PowerTool", commands("powertool"));
+		registerModule("SpawnMob", commands("spawnmob"), "Monolith");
+		registerModule("Kill", commands("kill"));
+		registerModule("Near", commands("near", "animals", "monsters", "npcs"));
+		registerModule("Calc", commands("calc"));
+		registerModule("Burn", commands("burn"));
+		registerModule("ItemAttribute", commands("itemattribute"), "Monolith");
+		registerModule("hardmode", commands("hardmode"));
+		registerModule("PlayerListModule", commands("mvw"));
+		//TODO: Register additional modules here, and construct them in instantiateModule
+	}
+	
+	/**
+	 * Constructs a registered module. Modules are constructed directly rather than through a
+	 * constructor reference each, as every reference spins up its own class when first used.
+	 * @return The new module, or null if no module is registered under that name
+	 */
+	private static Module instantiateModule(String name)
+	{
+		switch(name)
+		{
+		case "FlyModule":
+			return new FlyModule();
+		case "HatModule":
+			return new HatModule();
+		case "WorkbenchModule":
+			return new WorkbenchModule();
+		case "HealModule":
+			return new HealModule();
+		case "SpeedModule":
+			return new SpeedModule();
+		case "ExpModule":
+			return new ExpModule();
+		case "WhoIsModule":
+			return new WhoIsModule();
+		case "DropItemModule":
+			return new DropItemModule();
+		case "EnchantModule":
+			return new EnchantModule();
+		case "GamemodeModule":
+			return new GamemodeModule();
+		case "ModeModule":
+			return new MoreModule();
+		case "RepairModule":
+			return new RepairModule();
+		case "GodModule":
+			return new GodModule();
+		case "TimeModule":
+			return new TimeModule();
+		case "SmiteModule":
+			return new SmiteModule();
+		case "StackModule":
+			return new StackModule();
+		case "PowerTool":
+			return new PowertoolModule();
+		case "SpawnMob":
+			return new SpawnMobModule();
+		case "Kill":
+			return new KillModule();
+		case "Near":
+			return new NearModule();
+		case "Calc":
+			return new CalcModule();
+		case "Burn":
+			return new BurnCommand();
+		case "ItemAttribute":
+			return new ItemAttributeModule();
+		case "hardmode":
+			return new HardMode();
+		case "PlayerListModule":
+			return new PlayerListModule();
+		default:
+			return null;
+		}
 	}
 	
 	@Override
@@ -77,11 +174,33 @@ public class MasterPlugin extends JavaPlugin
 		
 		getDataFolder().mkdir();
 		
+		if(mConfig.watchFiles)
+			mWatcher = new ConfigWatcher(getDataFolder().toPath(), getLogger());
+		
 		if(mConfig.load())
-			mConfig.save();
+		{
+			Config config = mConfig;
+			config.saveAsync().thenAccept(saved ->
+			{
+				if(mWatcher != null)
+					mWatcher.markKnown("config.yml", config.getLastContents());
+			});
+		}
 		
+		Timings.setEnabled(mConfig.timings);
+		Walkability.configure(mConfig.safeTeleportPassable, mConfig.safeTeleportHazards, getLogger());
+		mTimingsLog = new TimingsLog(new File(getDataFolder(), "timings.log"), mConfig.slowCommandThreshold, getLogger());
+		mStandableIndex = new StandableIndex(this);
+		
+		if(mConfig.metricsEnabled)
+			startMetrics();
+		
+		mMessages = new MessageBundles(this, mConfig.localeCacheSize);
 		reloadFormat();
 		
+		if(mWatcher != null)
+			startWatcher();
+		
 		PandoraCommand cmd = new PandoraCommand(this);
 		getCommand("pansentials").setExecutor(cmd);
 		getCommand("pansentials").setTabCompleter(cmd);
@@ -93,6 +212,12 @@ public class MasterPlugin extends JavaPlugin
 	@Override
 	public void onDisable()
 	{
+		if(mWatcher != null)
+		{
+			mWatcher.stop();
+			mWatcher = null;
+		}
+		
 		for(Entry<String, Module> module : mLoadedModules.entrySet())
 		{
 			try
@@ -104,19 +229,249 @@ public class MasterPlugin extends JavaPlugin
 				getLogger().severe("Error disabling module: " + module.getKey());
 				e.printStackTrace();
 			}
+			
+			closeContext(module.getKey());
 		}
 		
 		mLoadedModules.clear();
-		mAvailableModules.clear();
+		mPendingModules.clear();
+		mModuleStats.clear();
 		mAvailableModulesByName.clear();
+		mStandableIndex.clear();
+		
+		if(Timings.isEnabled())
+			mTimingsLog.logSummary("shutdown");
+		mTimingsLog.close();
+		
+		if(!AutoConfig.flushWrites())
+			getLogger().warning("Timed out waiting for config files to be saved");
+		
+		stopMetrics();
+		
 		mInstance = null;
 	}
 
+	private void startMetrics()
+	{
+		try
+		{
+			mMetricsServer = MetricsServer.start(mConfig.metricsPort);
+			Timings.setExported(true);
+			getLogger().info(String.format("Metrics available at http://localhost:%d/metrics", mConfig.metricsPort));
+		}
+		catch(IOException e)
+		{
+			getLogger().severe(String.format("Failed to start metrics endpoint on port %d: %s", mConfig.metricsPort, e.getMessage()));
+		}
+	}
+
+	private void stopMetrics()
+	{
+		if(mMetricsServer != null)
+		{
+			mMetricsServer.stop();
+			mMetricsServer = null;
+			Timings.setExported(false);
+		}
+	}
+	
+	private void startWatcher()
+	{
+		mWatcher.watch("config.yml", this::onConfigChanged);
+		mWatcher.watch("format.yml", this::onFormatChanged);
+		
+		try
+		{
+			mWatcher.start();
+		}
+		catch(IOException e)
+		{
+			getLogger().severe("Failed to watch the plugin folder for config changes: " + e.getMessage());
+			mWatcher = null;
+		}
+	}
+	
+	/**
+	 * Called off the main thread when config.yml was edited. The new config is parsed here,
+	 * and only swapped in on the main thread if it is valid.
+	 */
+	private void onConfigChanged(String contents)
+	{
+		Config config = new Config(new File(getDataFolder(), "config.yml"));
+		if(!config.loadFromString(contents))
+		{
+			getLogger().warning("config.yml has errors, keeping the previous settings");
+			return;
+		}
+		
+		if(isEnabled())
+			Bukkit.getScheduler().runTask(this, () -> applyConfig(config));
+	}
+	
+	private void applyConfig(Config config)
+	{
+		Config previous = mConfig;
+		mConfig = config;
+		
+		Timings.setEnabled(config.timings);
+		mTimingsLog.setThreshold(config.slowCommandThreshold);
+		mMessages.setCapacity(config.localeCacheSize);
+		
+		if(!config.safeTeleportPassable.equals(previous.safeTeleportPassable) || !config.safeTeleportHazards.equals(previous.safeTeleportHazards))
+		{
+			Walkability.configure(config.safeTeleportPassable, config.safeTeleportHazards, getLogger());
+			mStandableIndex.clear();
+		}
+		
+		if(config.metricsEnabled != previous.metricsEnabled || config.metricsPort != previous.metricsPort)
+		{
+			stopMetrics();
+			if(config.metricsEnabled)
+				startMetrics();
+		}
+		
+		getLogger().info("Reloaded config.yml");
+		notifySettingsReload();
+		if(!config.disabledModules.equals(previous.disabledModules) || config.lazyActivation != previous.lazyActivation)
+			getLogger().info("Changes to disabledModules and lazyActivation take effect on the next restart");
+	}
+	
+	/**
+	 * Called off the main thread when format.yml was edited. The new format replaces
+	 * the current one in a single reference swap if it parses.
+	 */
+	private void onFormatChanged(String contents)
+	{
+		YamlConfiguration newFormat = new YamlConfiguration();
+		try
+		{
+			newFormat.loadFromString(contents);
+		}
+		catch(InvalidConfigurationException e)
+		{
+			getLogger().warning("format.yml has errors, keeping the previous format: " + e.getMessage());
+			return;
+		}
+		
+		addFormatDefaults(newFormat);
+		format = newFormat;
+		mMessages.setDefault(newFormat);
+		getLogger().info("Reloaded format.yml");
+		
+		if(isEnabled())
+			Bukkit.getScheduler().runTask(this, this::notifySettingsReload);
+	}
+	
+	private void notifySettingsReload()
+	{
+		for(Entry<String, Module> module : mLoadedModules.entrySet())
+		{
+			try
+			{
+				module.getValue().onSettingsReload();
+			}
+			catch(Throwable e)
+			{
+				getLogger().severe("Error reloading settings of module: " + module.getKey());
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Loads a module's settings from a section of config.yml. The returned object is a snapshot
+	 * and is not changed afterwards, reload it in {@link Module#onSettingsReload()} to pick up edits.
+	 * May be called from any thread.
+	 * @param section The path of the section holding the settings
+	 * @param factory Creates the settings object with its default values
+	 * @return The loaded settings. Defaults are used for missing values, or for all values if any are invalid
+	 */
+	public <T extends AutoConfig> T loadSettings(String section, Supplier<T> factory)
+	{
+		T settings = factory.get();
+		ConfigurationSection values = mConfig.getLoadedSection(section);
+		if(values != null && !settings.load(values))
+		{
+			getLogger().warning(String.format("Invalid settings in config.yml section '%s', using defaults", section));
+			settings = factory.get();
+		}
+		
+		return settings;
+	}
+
 	public final boolean isModuleLoaded(String module)
 	{
 		return mLoadedModules.containsKey(module);
 	}
 	
+	/**
+	 * Checks if a module is waiting for first use before being enabled
+	 * @param module Name of module
+	 * @return True if the module is deferred by lazy activation
+	 */
+	public final boolean isModulePending(String module)
+	{
+		return mPendingModules.contains(module);
+	}
+	
+	/**
+	 * @return The enabled instance of a module, or null if it is not loaded
+	 */
+	final Module getLoadedModule(String module)
+	{
+		return mLoadedModules.get(module);
+	}
+	
+	final TimingsLog getTimingsLog()
+	{
+		return mTimingsLog;
+	}
+	
+	final StandableIndex getStandableIndex()
+	{
+		return mStandableIndex;
+	}
+	
+	final ModuleStats getModuleStats(String module)
+	{
+		return mModuleStats.computeIfAbsent(module, k -> new ModuleStats());
+	}
+	
+	/**
+	 * @return The number of event handlers the plugin has registered for this module, including
+	 *         those of helper listeners registered through its context
+	 */
+	final int countListeners(String module)
+	{
+		ModuleContext context = mContexts.get(module);
+		Module instance = mLoadedModules.get(module);
+		
+		int count = 0;
+		for(RegisteredListener listener : HandlerList.getRegisteredListeners(this))
+		{
+			if(listener.getListener() == instance || (context != null && context.isListenerRegistered(listener.getListener())))
+				++count;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @return The number of plugin commands currently executed by this module
+	 */
+	final int countCommands(Module module)
+	{
+		int count = 0;
+		for(String name : getDescription().getCommands().keySet())
+		{
+			PluginCommand command = getCommand(name);
+			if(command != null && TimedCommandExecutor.unwrap(command.getExecutor()) == module)
+				++count;
+		}
+		
+		return count;
+	}
+	
 	public final Set<String> getAllModules()
 	{
 		return Collections.unmodifiableSet(mAvailableModulesByName.keySet());
@@ -124,6 +479,9 @@ public class MasterPlugin extends JavaPlugin
 	
 	public final boolean reloadModule(String module)
 	{
+		if(isModulePending(module))
+			return activateModule(module);
+		
 		if(!isModuleLoaded(module))
 			return loadModule(module);
 		
@@ -131,9 +489,12 @@ public class MasterPlugin extends JavaPlugin
 		
 		mLoadedModules.remove(module);
 		
+		ModuleStats stats = getModuleStats(module);
 		try
 		{
+			long start = System.nanoTime();
 			instance.onDisable();
+			stats.setDisableTime(System.nanoTime() - start);
 		}
 		catch(Throwable e)
 		{
@@ -141,15 +502,30 @@ public class MasterPlugin extends JavaPlugin
 			e.printStackTrace();
 			return false;
 		}
+		finally
+		{
+			closeContext(module);
+		}
 		
 		try
 		{
+			long start = System.nanoTime();
+			instance.onPrepare();
+			stats.setPrepareTime(System.nanoTime() - start);
+			
+			start = System.nanoTime();
+			ModuleContext context = openContext(module, instance);
 			instance.onEnable();
+			if(instance instanceof Listener)
+				context.registerListener((Listener)instance);
+			wrapCommands(module, instance);
+			stats.setEnableTime(System.nanoTime() - start);
 		}
 		catch(Throwable e)
 		{
 			getLogger().severe("Error enabling module: " + module);
 			e.printStackTrace();
+			closeContext(module);
 			return false;
 		}
 		
@@ -158,12 +534,22 @@ public class MasterPlugin extends JavaPlugin
 	}
 
 	public final boolean enableModule(String module) {
+		if(isModulePending(module))
+			return activateModule(module);
+		
 		return !isModuleLoaded(module) && loadModule(module);
 
 	}
 	
 	public final boolean disableModule(String module)
 	{
+		if(isModulePending(module))
+		{
+			mPendingModules.remove(module);
+			unbindStubs(mAvailableModulesByName.get(module));
+			return true;
+		}
+		
 		if(!isModuleLoaded(module))
 			return false;
 		
@@ -173,9 +559,9 @@ public class MasterPlugin extends JavaPlugin
 		
 		try
 		{
+			long start = System.nanoTime();
 			instance.onDisable();
-			if(instance instanceof Listener)
-				HandlerList.unregisterAll((Listener)instance);
+			getModuleStats(module).setDisableTime(System.nanoTime() - start);
 		}
 		catch(Throwable e)
 		{
@@ -183,33 +569,256 @@ public class MasterPlugin extends JavaPlugin
 			e.printStackTrace();
 			return false;
 		}
+		finally
+		{
+			closeContext(module);
+		}
 		
 		return true;
 	}
 	
+	/**
+	 * Enables a module that was deferred by lazy activation. Called by the
+	 * stub executors the first time one of the module's commands is used.
+	 * @param module Name of module
+	 * @return True if the module is now loaded
+	 */
+	final boolean activateModule(String module)
+	{
+		if(!mPendingModules.remove(module))
+			return isModuleLoaded(module);
+		
+		ModuleDefinition definition = mAvailableModulesByName.get(module);
+		unbindStubs(definition);
+		
+		getLogger().info(String.format("[%s] Enabling on first use", module));
+		return loadModule(module);
+	}
+	
 	/**
 	 * Registers a module for loading
-	 * @param name Name of module
-	 * @param moduleClass Class for the module
+	 * @param name Name of module, which {@link #instantiateModule(String)} must construct
+	 * @param commands Commands owned by the module, used to trigger lazy activation
 	 * @param dependencies Names of plugins needed for this module to load
 	 */
-	private void registerModule(String name, String moduleClass, String... dependencies)
+	private void registerModule(String name, String[] commands, String... dependencies)
 	{
-		ModuleDefinition def = new ModuleDefinition(name, moduleClass, dependencies);
-		mAvailableModules.put(moduleClass, def);
-		mAvailableModulesByName.put(name, def);
+		mAvailableModulesByName.put(name, new ModuleDefinition(name, commands, dependencies));
+	}
+	
+	private static String[] commands(String... commands)
+	{
+		return commands;
 	}
 
 	private void loadModules()
 	{
 		mLoadedModules.clear();
 		
+		long start = System.nanoTime();
+		LinkedHashMap<String, Module> created = new LinkedHashMap<>();
 		for(String name : mAvailableModulesByName.keySet())
 		{
-			if(!mConfig.disabledModules.contains(name.toLowerCase()))
-				loadModule(name);
-			else
+			ModuleDefinition module = mAvailableModulesByName.get(name);
+			
+			if(mConfig.disabledModules.contains(name.toLowerCase()))
 				getLogger().info(String.format("[%s] Not enabling, disabled from config", name));
+			else if(mConfig.lazyActivation && module.commands.length > 0)
+				deferModule(module);
+			else if(hasDependencies(module))
+			{
+				Module instance = createModule(module);
+				if(instance != null)
+					created.put(name, instance);
+			}
+		}
+		
+		List<String> order = sortByLoadOrder(created);
+		
+		long prepareStart = System.nanoTime();
+		Set<String> failed = prepareModules(created, order);
+		
+		long activateStart = System.nanoTime();
+		for(String name : order)
+		{
+			if(failed.contains(name))
+				continue;
+			
+			Module instance = created.get(name);
+			
+			// Modules come after those they load after, so a failure carries on to every dependent
+			String missing = findFailedDependency(instance, created);
+			if(missing != null)
+			{
+				getLogger().warning(String.format("[%s] Not enabling, %s failed to enable", name, missing));
+				continue;
+			}
+			
+			if(enableInstance(name, instance))
+				mLoadedModules.put(name, instance);
+		}
+		
+		long end = System.nanoTime();
+		getLogger().info(String.format("Enabled %d of %d modules in %.2fms (create %.2fms, prepare %.2fms, activate %.2fms)",
+				mLoadedModules.size(), mAvailableModulesByName.size(), toMillis(end - start),
+				toMillis(prepareStart - start), toMillis(activateStart - prepareStart), toMillis(end - activateStart)));
+		if(!mPendingModules.isEmpty())
+			getLogger().info(String.format("%d modules will be enabled on first use", mPendingModules.size()));
+	}
+	
+	private static double toMillis(long nanos)
+	{
+		return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000d;
+	}
+	
+	/**
+	 * Orders modules so that every module comes after the modules it names in {@link Module#getLoadAfter()}.
+	 * Names of modules that are not being loaded are ignored.
+	 */
+	private List<String> sortByLoadOrder(Map<String, Module> modules)
+	{
+		List<String> order = new ArrayList<>(modules.size());
+		Set<String> visiting = new HashSet<>();
+		
+		for(String name : modules.keySet())
+			visitLoadOrder(name, modules, visiting, order);
+		
+		return order;
+	}
+	
+	private void visitLoadOrder(String name, Map<String, Module> modules, Set<String> visiting, List<String> order)
+	{
+		if(order.contains(name))
+			return;
+		
+		if(!visiting.add(name))
+		{
+			getLogger().warning(String.format("[%s] Load order cycle detected, ignoring", name));
+			return;
+		}
+		
+		for(String before : modules.get(name).getLoadAfter())
+		{
+			if(modules.containsKey(before))
+				visitLoadOrder(before, modules, visiting, order);
+		}
+		
+		visiting.remove(name);
+		order.add(name);
+	}
+	
+	/**
+	 * @return The name of a module this one loads after that was created but is not loaded, or null if there is none
+	 */
+	private String findFailedDependency(Module module, Map<String, Module> created)
+	{
+		for(String dependency : module.getLoadAfter())
+		{
+			if(created.containsKey(dependency) && !mLoadedModules.containsKey(dependency))
+				return dependency;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Runs {@link Module#onPrepare()} for every module in parallel, off the main thread.
+	 * A module is only prepared once the modules it loads after have been prepared,
+	 * and is not prepared at all if one of them failed.
+	 * @return The names of the modules that failed to prepare or were skipped
+	 */
+	private Set<String> prepareModules(Map<String, Module> modules, List<String> order)
+	{
+		Set<String> failed = ConcurrentHashMap.newKeySet();
+		if(modules.isEmpty())
+			return failed;
+		
+		int threads = Math.min(modules.size(), Runtime.getRuntime().availableProcessors());
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+		HashMap<String, CompletableFuture<Void>> stages = new HashMap<>();
+		
+		try
+		{
+			for(String name : order)
+			{
+				Module module = modules.get(name);
+				
+				ArrayList<CompletableFuture<Void>> before = new ArrayList<>();
+				for(String dependency : module.getLoadAfter())
+				{
+					if(stages.containsKey(dependency))
+						before.add(stages.get(dependency));
+				}
+				
+				stages.put(name, CompletableFuture.allOf(before.toArray(new CompletableFuture[0])).thenRunAsync(() ->
+				{
+					for(String dependency : module.getLoadAfter())
+					{
+						if(failed.contains(dependency))
+						{
+							failed.add(name);
+							getLogger().warning(String.format("[%s] Not preparing, %s failed to prepare", name, dependency));
+							return;
+						}
+					}
+					
+					try
+					{
+						long start = System.nanoTime();
+						module.onPrepare();
+						getModuleStats(name).setPrepareTime(System.nanoTime() - start);
+					}
+					catch(Throwable e)
+					{
+						failed.add(name);
+						getLogger().severe("Failed to prepare module: " + name);
+						e.printStackTrace();
+					}
+				}, pool));
+			}
+			
+			CompletableFuture.allOf(stages.values().toArray(new CompletableFuture[0])).join();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		
+		return failed;
+	}
+	
+	/**
+	 * Binds stub executors to the module's commands instead of enabling it.
+	 * The module is created and enabled when one of them is first used.
+	 */
+	private void deferModule(ModuleDefinition module)
+	{
+		LazyModuleExecutor stub = new LazyModuleExecutor(this, module.name);
+		for(String name : module.commands)
+		{
+			PluginCommand command = getCommand(name);
+			if(command != null)
+			{
+				command.setExecutor(stub);
+				command.setTabCompleter(stub);
+			}
+		}
+		
+		mPendingModules.add(module.name);
+	}
+	
+	private void unbindStubs(ModuleDefinition module)
+	{
+		for(String name : module.commands)
+		{
+			PluginCommand command = getCommand(name);
+			if(command == null)
+				continue;
+			
+			if(command.getExecutor() instanceof LazyModuleExecutor)
+				command.setExecutor(null);
+			if(command.getTabCompleter() instanceof LazyModuleExecutor)
+				command.setTabCompleter(null);
 		}
 	}
 	
@@ -217,6 +826,37 @@ public class MasterPlugin extends JavaPlugin
 	{
 		ModuleDefinition module = mAvailableModulesByName.get(name);
 		
+		if(!hasDependencies(module))
+			return false;
+		
+		Module instance = createModule(module);
+		
+		if(instance == null)
+			return false;
+		
+		try
+		{
+			long start = System.nanoTime();
+			instance.onPrepare();
+			getModuleStats(name).setPrepareTime(System.nanoTime() - start);
+		}
+		catch(Throwable e)
+		{
+			getLogger().severe("Failed to prepare module: " + name);
+			e.printStackTrace();
+			return false;
+		}
+		
+		if(!enableInstance(name, instance))
+			return false;
+		
+		mLoadedModules.put(module.name, instance);
+		
+		return true;
+	}
+	
+	private boolean hasDependencies(ModuleDefinition module)
+	{
 		String missingDeps = "";
 		
 		for(String plugin : module.dependencies)
@@ -232,66 +872,93 @@ public class MasterPlugin extends JavaPlugin
 		
 		if(!missingDeps.isEmpty())
 		{
-			getLogger().info(String.format("[%s] Not enabling, missing dependencies: %s", name, missingDeps));
+			getLogger().info(String.format("[%s] Not enabling, missing dependencies: %s", module.name, missingDeps));
 			return false;
 		}
 		
-		Module instance = createModule(module.name, module.moduleClass);
-		
-		if(instance == null)
-			return false;
-		
-		mLoadedModules.put(module.name, instance);
-		
 		return true;
 	}
 	
-	private Module createModule(String name, String moduleClass)
+	private Module createModule(ModuleDefinition definition)
 	{
+		Module module;
 		try
 		{
-			Class<?> rawClazz = Class.forName(moduleClass);
-			if(!Module.class.isAssignableFrom(rawClazz))
-			{
-				getLogger().severe("Module class '" + moduleClass + "' is not an instance of Module!");
-				return null;
-			}
-			
-			Module module = rawClazz.asSubclass(Module.class).newInstance();
-			module.setPandoraInstance(this);
-			
-			try
-			{
-				module.onEnable();
-				if(module instanceof Listener)
-					Bukkit.getPluginManager().registerEvents((Listener)module, this);
-				
-				return module;
-			}
-			catch(Throwable e)
-			{
-				getLogger().severe("Failed to enable module: " + name);
-				e.printStackTrace();
-			}
-		} catch (InstantiationException | ExceptionInInitializerError e)
+			module = instantiateModule(definition.name);
+			if(module == null)
+				throw new IllegalStateException("No constructor for module " + definition.name);
+		}
+		catch(RuntimeException | LinkageError e)
 		{
-			getLogger().severe("Failed to instanciate " + name);
+			getLogger().severe("Failed to instanciate " + definition.name);
 			e.printStackTrace();
-		} catch (IllegalAccessException e)
+			return null;
+		}
+		
+		module.setPandoraInstance(this);
+		return module;
+	}
+	
+	private boolean enableInstance(String name, Module module)
+	{
+		try
 		{
-			getLogger().severe("Failed to instanciate " + name + ". No public default constructor available.");
-			e.printStackTrace();
+			long start = System.nanoTime();
+			ModuleContext context = openContext(name, module);
+			module.onEnable();
+			if(module instanceof Listener)
+				context.registerListener((Listener)module);
+			wrapCommands(name, module);
+			getModuleStats(name).setEnableTime(System.nanoTime() - start);
+			
+			return true;
 		}
-		catch ( ClassNotFoundException e )
+		catch(Throwable e)
 		{
-			getLogger().severe("Failed to instanciate " + name + ". Class not found");
+			getLogger().severe("Failed to enable module: " + name);
 			e.printStackTrace();
+			closeContext(name);
 		}
 		
-		return null;
+		return false;
+	}
+	
+	private ModuleContext openContext(String name, Module module)
+	{
+		ModuleContext context = new ModuleContext(this, name, module);
+		mContexts.put(name, context);
+		module.setContext(context);
+		return context;
+	}
+	
+	/**
+	 * Releases everything the module still holds through its context, and anything bound directly to it
+	 */
+	private void closeContext(String name)
+	{
+		ModuleContext context = mContexts.remove(name);
+		if(context != null)
+			context.close();
+	}
+	
+	/**
+	 * Wraps the executors of all commands the module bound in its onEnable so they are timed
+	 */
+	private void wrapCommands(String name, Module module)
+	{
+		for(String commandName : getDescription().getCommands().keySet())
+		{
+			PluginCommand command = getCommand(commandName);
+			if(command == null)
+				continue;
+			
+			CommandExecutor executor = command.getExecutor();
+			if(executor == module)
+				command.setExecutor(new TimedCommandExecutor(name, executor, mTimingsLog));
+		}
 	}
 	
-	private static class Config extends AutoConfig
+	static class Config extends AutoConfig
 	{
 		Config(File file)
 		{
@@ -301,6 +968,33 @@ public class MasterPlugin extends JavaPlugin
 		@ConfigField()
 		HashSet<String> disabledModules = new HashSet<>();
 		
+		@ConfigField(comment = "When true, modules are only enabled the first time one of their commands is used")
+		boolean lazyActivation = false;
+		
+		@ConfigField(comment = "When true, module event handlers are timed from startup. Can be toggled with /pansentials timings")
+		boolean timings = false;
+		
+		@ConfigField(comment = "While timings are on, commands taking at least this many milliseconds are written to timings.log")
+		long slowCommandThreshold = 50;
+		
+		@ConfigField(comment = "When true, edits to config.yml and format.yml are picked up without a reload command")
+		boolean watchFiles = true;
+		
+		@ConfigField(comment = "When true, metrics are served in Prometheus format on http://localhost:<metricsPort>/metrics")
+		boolean metricsEnabled = false;
+		
+		@ConfigField(comment = "The port of the metrics endpoint. It only listens on the loopback address")
+		int metricsPort = 9225;
+		
+		@ConfigField(comment = "The number of client locales whose messages from lang/format_<locale>.yml are kept loaded")
+		int localeCacheSize = 8;
+		
+		@ConfigField(comment = "Block materials safe teleports may put a player's feet and head in, in addition to all non-solid blocks")
+		HashSet<String> safeTeleportPassable = new HashSet<>();
+		
+		@ConfigField(comment = "Block materials safe teleports never put a player in or on, in addition to fire, lava, magma, cactus and similar")
+		HashSet<String> safeTeleportHazards = new HashSet<>();
+		
 		@Override
 		protected void onPostLoad() {
 			HashSet<String> lowerCaseSet = new HashSet<>(disabledModules.size());
@@ -315,13 +1009,13 @@ public class MasterPlugin extends JavaPlugin
 	private static class ModuleDefinition
 	{
 		final String name;
-		final String moduleClass;
+		final String[] commands;
 		final String[] dependencies;
 
-		ModuleDefinition(String name, String moduleClass, String... dependencies)
+		ModuleDefinition(String name, String[] commands, String... dependencies)
 		{
 			this.name = name;
-			this.moduleClass = moduleClass;
+			this.commands = commands;
 			if(dependencies == null)
 				this.dependencies = new String[0];
 			else
@@ -329,30 +1023,98 @@ public class MasterPlugin extends JavaPlugin
 		}
 	}
 	
+	/**
+	 * Loads format.yml, adding any messages missing from it. The file is only written back,
+	 * off the main thread, when messages were actually added. The merged format is kept in
+	 * a binary snapshot that is used instead of the YAML while neither source has changed.
+	 */
 	public void reloadFormat(){
 		File f = new File(getDataFolder() + "/format.yml");
 		if(!f.exists()){
 			saveResource("format.yml", false);
 		}
-		f = new File(getDataFolder() + "/format.yml");
+		File snapshotFile = new File(getDataFolder(), "cache/format.bin");
 
-		format = YamlConfiguration.loadConfiguration(f);
-		FileConfiguration inConf = YamlConfiguration.loadConfiguration(getTextResource("format.yml"));
-		for(String key : inConf.getKeys(true)){
-			if(!format.contains(key)){
-				format.set(key, inConf.get(key));
+		byte[] source = null;
+		byte[] bundled = null;
+		try (InputStream in = getResource("format.yml")) {
+			source = Files.readAllBytes(f.toPath());
+			bundled = (in != null ? in.readAllBytes() : new byte[0]);
+		} catch (IOException e) {
+			getLogger().severe("Failed to read format.yml, using the default messages: " + e.getMessage());
+		}
+		
+		YamlConfiguration newFormat = null;
+		if(source != null)
+			newFormat = FormatSnapshot.read(snapshotFile, FormatSnapshot.key(getDescription().getVersion(), source, bundled));
+		
+		if(newFormat == null){
+			newFormat = new YamlConfiguration();
+			boolean valid = (source != null);
+			if(valid){
+				try {
+					newFormat.loadFromString(new String(source, StandardCharsets.UTF_8));
+				} catch (InvalidConfigurationException e) {
+					getLogger().severe("Failed to load format.yml, using the default messages: " + e.getMessage());
+					valid = false;
+				}
+			}
+			
+			boolean changed = addFormatDefaults(newFormat);
+			
+			// Never overwrite a format.yml that could not be read, so the user can fix it
+			if(valid){
+				if(changed){
+					String data = newFormat.saveToString();
+					source = data.getBytes(StandardCharsets.UTF_8);
+					if(mWatcher != null)
+						mWatcher.markKnown("format.yml", data);
+					
+					AutoConfig.writeAsync(f, source).thenAccept(written -> {
+						if(!written)
+							getLogger().warning("Failed to save the new messages to format.yml");
+					});
+				}
+				
+				byte[] snapshot = FormatSnapshot.encode(newFormat, FormatSnapshot.key(getDescription().getVersion(), source, bundled));
+				if(snapshot != null)
+					AutoConfig.writeAsync(snapshotFile, snapshot);
 			}
 		}
 		
-		try {
-			format.save(f);
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+		format = newFormat;
+		mMessages.setDefault(newFormat);
+		
+		notifySettingsReload();
+	}
+	
+	/**
+	 * Adds any keys missing from the format that exist in the bundled format.yml
+	 * @return True if any key was added
+	 */
+	private boolean addFormatDefaults(FileConfiguration target){
+		FileConfiguration inConf = YamlConfiguration.loadConfiguration(getTextResource("format.yml"));
+		boolean changed = false;
+		for(String key : inConf.getKeys(true)){
+			if(!target.contains(key)){
+				target.set(key, inConf.get(key));
+				changed = true;
+			}
 		}
+		return changed;
 	}
 	
 	public FileConfiguration getFormatConfig(){
 		return format;
 	}
+	
+	/**
+	 * Gets the messages to use for a recipient. Players get the bundle for their client locale
+	 * when there is one, everyone else gets the messages of format.yml.
+	 * @param recipient The recipient of the message
+	 * @return The compiled messages
+	 */
+	public MessageTemplates getMessages(CommandSender recipient){
+		return mMessages.get(recipient);
+	}
 }
@@ -0,0 +1,168 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the messages for each client locale. The bundle for a locale is read from
+ * lang/format_&lt;locale&gt;.yml in the plugin folder, or from the plugin jar, on an async task
+ * the first time a recipient with that locale needs a message. Until it has been read, messages
+ * for that locale come from format.yml. Messages missing from a bundle also fall back
+ * to format.yml. Only the most recently used bundles are kept; locales without a bundle
+ * share the templates of format.yml.
+ */
+final class MessageBundles
+{
+	private final MasterPlugin mPlugin;
+	private final LinkedHashMap<String, MessageTemplates> mBundles;
+	/**
+	 * The locales whose bundles are being read
+	 */
+	private final Set<String> mLoading;
+
+	private volatile MessageTemplates mDefault;
+	private volatile FileConfiguration mDefaultFormat;
+	private volatile int mCapacity;
+
+	MessageBundles(MasterPlugin plugin, int capacity)
+	{
+		mPlugin = plugin;
+		mCapacity = capacity;
+		mBundles = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, MessageTemplates> eldest)
+			{
+				return size() > mCapacity;
+			}
+		};
+		mLoading = new HashSet<>();
+	}
+
+	/**
+	 * Sets the format used for recipients without a bundle, and as the fallback of every bundle.
+	 * All loaded bundles are discarded and will be read again when next needed.
+	 */
+	synchronized void setDefault(FileConfiguration format)
+	{
+		mDefaultFormat = format;
+		mDefault = MessageTemplates.of(format);
+		mBundles.clear();
+	}
+
+	/**
+	 * Sets the maximum number of locale bundles kept loaded
+	 */
+	synchronized void setCapacity(int capacity)
+	{
+		mCapacity = capacity;
+
+		Iterator<String> it = mBundles.keySet().iterator();
+		while(mBundles.size() > Math.max(capacity, 0))
+		{
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @return The messages in the client locale of the recipient if it is a player, otherwise those of format.yml
+	 */
+	MessageTemplates get(CommandSender recipient)
+	{
+		if(recipient instanceof Player)
+			return get(((Player)recipient).locale());
+
+		return mDefault;
+	}
+
+	/**
+	 * @return The messages for a locale. Falls back to the bundle of the language, then to format.yml.
+	 * 		Returns those of format.yml while the bundle is still being read
+	 */
+	MessageTemplates get(Locale locale)
+	{
+		String key = locale.toString().toLowerCase(Locale.ROOT);
+		if(key.isEmpty() || mCapacity <= 0)
+			return mDefault;
+
+		MessageTemplates defaults;
+		FileConfiguration defaultFormat;
+		synchronized(this)
+		{
+			MessageTemplates templates = mBundles.get(key);
+			if(templates != null)
+				return templates;
+
+			defaults = mDefault;
+			defaultFormat = mDefaultFormat;
+			if(!mLoading.add(key))
+				return defaults;
+		}
+
+		String language = locale.getLanguage().toLowerCase(Locale.ROOT);
+		Bukkit.getScheduler().runTaskAsynchronously(mPlugin, () -> loadTemplates(key, language, defaults, defaultFormat));
+		return defaults;
+	}
+
+	/**
+	 * Reads the bundle of a locale and makes its templates available. Runs off the main thread
+	 */
+	private void loadTemplates(String key, String language, MessageTemplates defaults, FileConfiguration defaultFormat)
+	{
+		MessageTemplates templates = defaults;
+		try
+		{
+			FileConfiguration bundle = loadBundle(key);
+			if(bundle == null && !language.equals(key))
+				bundle = loadBundle(language);
+
+			if(bundle != null)
+			{
+				bundle.setDefaults(defaultFormat);
+				templates = MessageTemplates.of(bundle);
+			}
+		}
+		finally
+		{
+			synchronized(this)
+			{
+				mLoading.remove(key);
+				// Do not cache a bundle that falls back to a format which has since been replaced
+				if(mDefault == defaults)
+					mBundles.put(key, templates);
+			}
+		}
+	}
+
+	private FileConfiguration loadBundle(String name)
+	{
+		if(name.isEmpty())
+			return null;
+
+		String path = "lang/format_" + name + ".yml";
+		File file = new File(mPlugin.getDataFolder(), path);
+		if(file.isFile())
+			return YamlConfiguration.loadConfiguration(file);
+
+		InputStream resource = mPlugin.getResource(path);
+		if(resource == null)
+			return null;
+
+		return YamlConfiguration.loadConfiguration(new InputStreamReader(resource, StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,193 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message from the format file, with colour codes already translated and its
+ * %key% placeholders already located. Rendering is a single pass over the parts
+ * of the message, so no regex is compiled and no argument is split more than once.
+ * Templates are immutable and can be rendered from any thread.
+ */
+public final class MessageTemplate
+{
+	/**
+	 * Literal text at even indices, placeholder names (without the %) at odd indices.
+	 * Always has an odd length, so it starts and ends with literal text
+	 */
+	private final String[] mParts;
+	/**
+	 * The placeholders as they appear in the message, including the %
+	 */
+	private final String[] mTokens;
+	private final int mLiteralLength;
+
+	private MessageTemplate(String[] parts)
+	{
+		mParts = parts;
+		mTokens = new String[parts.length / 2];
+
+		int length = 0;
+		for(int i = 0; i < parts.length; ++i)
+		{
+			if(i % 2 == 0)
+				length += parts[i].length();
+			else
+				mTokens[i / 2] = "%" + parts[i] + "%";
+		}
+		mLiteralLength = length;
+	}
+
+	/**
+	 * Compiles a message, translating '&' colour codes and locating its placeholders.
+	 * A placeholder is a run of letters, digits or underscores between two '%'.
+	 * Any other '%' is kept as literal text.
+	 * @param text The raw message as written in the format file
+	 * @return The compiled template
+	 */
+	public static MessageTemplate compile(String text)
+	{
+		text = ChatColor.translateAlternateColorCodes('&', text);
+
+		List<String> parts = new ArrayList<>();
+		StringBuilder literal = new StringBuilder(text.length());
+
+		int i = 0;
+		while(i < text.length())
+		{
+			char c = text.charAt(i);
+			if(c == '%')
+			{
+				int end = findPlaceholderEnd(text, i + 1);
+				if(end != -1)
+				{
+					parts.add(literal.toString());
+					parts.add(text.substring(i + 1, end));
+					literal.setLength(0);
+					i = end + 1;
+					continue;
+				}
+			}
+
+			literal.append(c);
+			++i;
+		}
+		parts.add(literal.toString());
+
+		return new MessageTemplate(parts.toArray(new String[0]));
+	}
+
+	/**
+	 * @return A template for a path that is missing from the format file
+	 */
+	static MessageTemplate missing(String path)
+	{
+		return new MessageTemplate(new String[] {ChatColor.RED + "No format value found for path:" + path + "!"});
+	}
+
+	private static int findPlaceholderEnd(String text, int start)
+	{
+		for(int i = start; i < text.length(); ++i)
+		{
+			char c = text.charAt(i);
+			if(c == '%')
+				return (i == start ? -1 : i);
+			if(!Character.isLetterOrDigit(c) && c != '_')
+				return -1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return True if the message contains at least one placeholder
+	 */
+	public boolean hasPlaceholders()
+	{
+		return mParts.length > 1;
+	}
+
+	/**
+	 * Renders the message leaving all placeholders as they are
+	 */
+	public String render()
+	{
+		if(mParts.length == 1)
+			return mParts[0];
+
+		return render(Map.of());
+	}
+
+	/**
+	 * Renders the message using the legacy argument form of {@link Utilities#format(org.bukkit.configuration.file.FileConfiguration, String, String...)}.
+	 * Replacements are inserted as they are: unlike the regex replacement this replaced, '$' and '\' in them
+	 * have no special meaning. As before, when a key is given more than once the first is used.
+	 * @param args Each must match "%key%:replacement"
+	 * @return The rendered message. Placeholders without a matching argument are left as they are
+	 */
+	public String render(String... args)
+	{
+		if(mParts.length == 1)
+			return mParts[0];
+
+		StringBuilder builder = new StringBuilder(mLiteralLength + 16 * mTokens.length);
+		for(int i = 0; i < mParts.length; ++i)
+		{
+			if(i % 2 == 0)
+			{
+				builder.append(mParts[i]);
+				continue;
+			}
+
+			String token = mTokens[i / 2];
+			String value = null;
+			for(String arg : args)
+			{
+				if(arg.length() > token.length() && arg.charAt(token.length()) == ':' && arg.startsWith(token))
+				{
+					value = arg;
+					break;
+				}
+			}
+
+			if(value != null)
+				builder.append(value, token.length() + 1, value.length());
+			else
+				builder.append(token);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Renders the message with the given values
+	 * @param values The placeholder values, keyed by placeholder name without the surrounding '%'
+	 * @return The rendered message. Placeholders without a value are left as they are
+	 */
+	public String render(Map<String, ?> values)
+	{
+		if(mParts.length == 1)
+			return mParts[0];
+
+		StringBuilder builder = new StringBuilder(mLiteralLength + 16 * mTokens.length);
+		for(int i = 0; i < mParts.length; ++i)
+		{
+			if(i % 2 == 0)
+			{
+				builder.append(mParts[i]);
+				continue;
+			}
+
+			Object value = values.get(mParts[i]);
+			if(value != null)
+				builder.append(value);
+			else
+				builder.append(mTokens[i / 2]);
+		}
+
+		return builder.toString();
+	}
+}
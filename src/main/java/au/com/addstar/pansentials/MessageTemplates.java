@@ -0,0 +1,72 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled templates of one format file. Templates are compiled the first time
+ * their path is requested. The format file must not be modified once templates have
+ * been requested from it; a reloaded format is a new instance with its own templates.
+ */
+public final class MessageTemplates
+{
+	// The templates hold their format file, so they are only weakly referenced to let both be collected
+	private static final Map<ConfigurationSection, WeakReference<MessageTemplates>> sCache = new WeakHashMap<>();
+
+	private final ConfigurationSection mConfig;
+	private final ConcurrentHashMap<String, MessageTemplate> mTemplates;
+
+	public MessageTemplates(ConfigurationSection config)
+	{
+		mConfig = config;
+		mTemplates = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Gets the templates for a format file. Templates are cached per format file for as long as
+	 * they are in use, so repeated calls with the same instance share compiled templates.
+	 * @param config The format file
+	 * @return The templates of that format file
+	 */
+	public static MessageTemplates of(ConfigurationSection config)
+	{
+		synchronized(sCache)
+		{
+			WeakReference<MessageTemplates> ref = sCache.get(config);
+			MessageTemplates templates = (ref == null ? null : ref.get());
+			if(templates == null)
+			{
+				templates = new MessageTemplates(config);
+				sCache.put(config, new WeakReference<>(templates));
+			}
+
+			return templates;
+		}
+	}
+
+	/**
+	 * @param path The path of the message
+	 * @return The compiled message, or a template reporting the missing path if there is no message there
+	 */
+	public MessageTemplate get(String path)
+	{
+		MessageTemplate template = mTemplates.get(path);
+		if(template == null)
+			template = mTemplates.computeIfAbsent(path, this::compile);
+
+		return template;
+	}
+
+	private MessageTemplate compile(String path)
+	{
+		String text = (mConfig.contains(path) && !mConfig.isConfigurationSection(path) ? mConfig.getString(path) : null);
+		if(text == null)
+			return MessageTemplate.missing(path);
+
+		return MessageTemplate.compile(text);
+	}
+}
@@ -1,10 +1,56 @@
 package au.com.addstar.pansentials;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
 public interface Module
 {
+	/**
+	 * Called before {@link #onEnable()}, off the main thread and in parallel
+	 * with other modules when the plugin starts. Use this for work that does
+	 * not touch the Bukkit API, such as parsing config or building indexes.
+	 */
+	default void onPrepare()
+	{
+	}
+	
 	void onEnable();
 
 	void onDisable();
 
 	void setPandoraInstance(MasterPlugin plugin);
+	
+	/**
+	 * Called before every {@link #onEnable()} with a fresh context. Listeners, commands and tasks
+	 * created through it are released once the module has been disabled.
+	 */
+	default void setContext(ModuleContext context)
+	{
+	}
+	
+	/**
+	 * Called on the main thread after config.yml or format.yml has been reloaded.
+	 * Modules holding settings snapshots should rebuild them here.
+	 */
+	default void onSettingsReload()
+	{
+	}
+	
+	/**
+	 * @return Names of modules that must be prepared and enabled before this one
+	 */
+	default Collection<String> getLoadAfter()
+	{
+		return Collections.emptyList();
+	}
+	
+	/**
+	 * Reports the size of the state this module keeps between events, for /pansentials stats
+	 * @return A map of state name to the number of entries held
+	 */
+	default Map<String, Integer> getStateSizes()
+	{
+		return Collections.emptyMap();
+	}
 }
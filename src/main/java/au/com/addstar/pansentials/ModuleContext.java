@@ -0,0 +1,206 @@
+package au.com.addstar.pansentials;
+
+import au.com.addstar.pansentials.timings.TimedCommandExecutor;
+import au.com.addstar.pansentials.timings.TimedEventExecutor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks the listeners, command bindings and scheduled tasks a module creates while it is enabled.
+ * A new context is given to the module every time it is enabled, and is closed once the module has
+ * been disabled, releasing anything the module left behind. All methods must be called from the main thread.
+ */
+public final class ModuleContext
+{
+	/**
+	 * The number of tracked tasks below which finished tasks are never pruned
+	 */
+	private static final int PRUNE_THRESHOLD = 32;
+	
+	private final MasterPlugin mPlugin;
+	private final String mName;
+	private final Module mModule;
+	
+	private final Set<Listener> mListeners;
+	private final List<String> mCommands;
+	private final List<BukkitTask> mTasks;
+	
+	private int mPruneAt = PRUNE_THRESHOLD;
+	private boolean mClosed;
+	
+	ModuleContext(MasterPlugin plugin, String name, Module module)
+	{
+		mPlugin = plugin;
+		mName = name;
+		mModule = module;
+		
+		mListeners = Collections.newSetFromMap(new IdentityHashMap<>());
+		mCommands = new ArrayList<>();
+		mTasks = new ArrayList<>();
+	}
+	
+	/**
+	 * @return The name the module was registered with
+	 */
+	public String getName()
+	{
+		return mName;
+	}
+	
+	/**
+	 * Registers all the event handlers of a listener. Registering a listener that is already registered does nothing.
+	 */
+	public void registerListener(Listener listener)
+	{
+		checkOpen();
+		if(mListeners.add(listener))
+			TimedEventExecutor.registerEvents(mName, listener, mPlugin);
+	}
+	
+	/**
+	 * Unregisters a listener previously registered with {@link #registerListener(Listener)}
+	 */
+	public void unregisterListener(Listener listener)
+	{
+		if(mListeners.remove(listener))
+			HandlerList.unregisterAll(listener);
+	}
+	
+	/**
+	 * Registers or unregisters a listener depending on whether it is currently needed.
+	 * Modules use this to keep handlers for frequent events registered only while they have state to act on.
+	 */
+	public void setListenerActive(Listener listener, boolean active)
+	{
+		if(active)
+			registerListener(listener);
+		else
+			unregisterListener(listener);
+	}
+	
+	public boolean isListenerRegistered(Listener listener)
+	{
+		return mListeners.contains(listener);
+	}
+	
+	/**
+	 * Binds the executor and tab completer of a command. The binding is removed when the context is closed.
+	 * @param name The name of the command in plugin.yml
+	 * @param executor The executor to bind
+	 * @param completer The tab completer to bind, or null for none
+	 * @return False if the command is not defined
+	 */
+	public boolean bindCommand(String name, CommandExecutor executor, TabCompleter completer)
+	{
+		checkOpen();
+		PluginCommand command = mPlugin.getCommand(name);
+		if(command == null)
+			return false;
+		
+		command.setExecutor(new TimedCommandExecutor(mName, executor, mPlugin.getTimingsLog()));
+		command.setTabCompleter(completer);
+		if(!mCommands.contains(name))
+			mCommands.add(name);
+		
+		return true;
+	}
+	
+	public BukkitTask runTask(Runnable task)
+	{
+		checkOpen();
+		return track(Bukkit.getScheduler().runTask(mPlugin, task));
+	}
+	
+	public BukkitTask runTaskLater(Runnable task, long delay)
+	{
+		checkOpen();
+		return track(Bukkit.getScheduler().runTaskLater(mPlugin, task, delay));
+	}
+	
+	public BukkitTask runTaskTimer(Runnable task, long delay, long period)
+	{
+		checkOpen();
+		return track(Bukkit.getScheduler().runTaskTimer(mPlugin, task, delay, period));
+	}
+	
+	/**
+	 * Tracks a task scheduled elsewhere so that it is cancelled when the context is closed
+	 */
+	public BukkitTask track(BukkitTask task)
+	{
+		if(mTasks.size() >= mPruneAt)
+		{
+			pruneTasks();
+			// Only prune again once the live tasks have doubled so tracking stays amortised constant time
+			mPruneAt = Math.max(PRUNE_THRESHOLD, mTasks.size() * 2);
+		}
+		mTasks.add(task);
+		return task;
+	}
+	
+	/**
+	 * Drops tasks that have finished or been cancelled so one off tasks do not accumulate
+	 */
+	private void pruneTasks()
+	{
+		BukkitScheduler scheduler = Bukkit.getScheduler();
+		for(Iterator<BukkitTask> it = mTasks.iterator(); it.hasNext();)
+		{
+			BukkitTask task = it.next();
+			if(task.isCancelled() || (!scheduler.isQueued(task.getTaskId()) && !scheduler.isCurrentlyRunning(task.getTaskId())))
+				it.remove();
+		}
+	}
+	
+	private void checkOpen()
+	{
+		if(mClosed)
+			throw new IllegalStateException("The context of " + mName + " has been closed");
+	}
+	
+	/**
+	 * Cancels all tasks, unregisters all listeners and unbinds all commands bound through this context,
+	 * or bound directly to the module by hand.
+	 */
+	void close()
+	{
+		mClosed = true;
+		
+		for(BukkitTask task : mTasks)
+		{
+			if(!task.isCancelled())
+				task.cancel();
+		}
+		mTasks.clear();
+		
+		for(Listener listener : mListeners)
+			HandlerList.unregisterAll(listener);
+		mListeners.clear();
+		
+		for(String name : mPlugin.getDescription().getCommands().keySet())
+		{
+			PluginCommand command = mPlugin.getCommand(name);
+			if(command == null)
+				continue;
+			
+			if(mCommands.contains(name) || TimedCommandExecutor.unwrap(command.getExecutor()) == mModule)
+				command.setExecutor(null);
+			if(mCommands.contains(name) || command.getTabCompleter() == mModule)
+				command.setTabCompleter(null);
+		}
+		mCommands.clear();
+	}
+}
@@ -0,0 +1,63 @@
+package au.com.addstar.pansentials;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations of the most recent lifecycle calls made on a module.
+ * Prepare times are written from the startup pool so all fields are volatile.
+ */
+class ModuleStats
+{
+	private volatile long mPrepareTime = -1;
+	private volatile long mEnableTime = -1;
+	private volatile long mDisableTime = -1;
+	
+	void setPrepareTime(long nanos)
+	{
+		mPrepareTime = nanos;
+	}
+	
+	void setEnableTime(long nanos)
+	{
+		mEnableTime = nanos;
+	}
+	
+	void setDisableTime(long nanos)
+	{
+		mDisableTime = nanos;
+	}
+	
+	/**
+	 * @return The enable time in nanoseconds including the prepare stage, or -1 if never enabled
+	 */
+	long getEnableTime()
+	{
+		if(mEnableTime < 0)
+			return -1;
+		
+		return mEnableTime + Math.max(0, mPrepareTime);
+	}
+	
+	String formatPrepareTime()
+	{
+		return format(mPrepareTime);
+	}
+	
+	String formatEnableTime()
+	{
+		return format(mEnableTime);
+	}
+	
+	String formatDisableTime()
+	{
+		return format(mDisableTime);
+	}
+	
+	private static String format(long nanos)
+	{
+		if(nanos < 0)
+			return "-";
+		
+		return String.format("%.2fms", TimeUnit.NANOSECONDS.toMicros(nanos) / 1000d);
+	}
+}
@@ -1,5 +1,8 @@
 package au.com.addstar.pansentials;
 
+import au.com.addstar.pansentials.timings.HandlerTimings;
+import au.com.addstar.pansentials.timings.LatencyHistogram;
+import au.com.addstar.pansentials.timings.Timings;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -9,6 +12,8 @@ import org.bukkit.command.TabCompleter;
 import java.util.*;
 
 class PandoraCommand implements CommandExecutor, TabCompleter {
+	private static final int MAX_TIMING_LINES = 15;
+	
 	private final MasterPlugin mPlugin;
 	
 	public PandoraCommand(MasterPlugin plugin)
@@ -30,6 +35,8 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 			{
 				if(mPlugin.isModuleLoaded(module))
 					all.add(ChatColor.GREEN + module);
+				else if(mPlugin.isModulePending(module))
+					all.add(ChatColor.YELLOW + module);
 				else
 					all.add(ChatColor.RED + module);
 			}
@@ -78,7 +85,7 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 		}
 		else if(args.length == 2 && args[0].equalsIgnoreCase("disable"))
 		{
-			if(!mPlugin.isModuleLoaded(args[1]))
+			if(!mPlugin.isModuleLoaded(args[1]) && !mPlugin.isModulePending(args[1]))
 				sender.sendMessage(ChatColor.RED + "That module is not loaded.");
 			else
 			{
@@ -104,9 +111,113 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 			mPlugin.reloadFormat();
 			sender.sendMessage(ChatColor.GREEN + "Format has been reloaded.");
 		}
+		else if(args.length == 1 && args[0].equalsIgnoreCase("stats"))
+		{
+			showStats(sender);
+		}
+		else if((args.length == 1 || args.length == 2) && args[0].equalsIgnoreCase("timings"))
+		{
+			onTimingsCommand(sender, args.length == 2 ? args[1].toLowerCase() : "");
+		}
 		return true;
 	}
 	
+	private void onTimingsCommand( CommandSender sender, String action )
+	{
+		switch(action)
+		{
+			case "on":
+				Timings.setEnabled(true);
+				sender.sendMessage(ChatColor.GREEN + "Timings enabled.");
+				break;
+			case "off":
+				Timings.setEnabled(false);
+				sender.sendMessage(ChatColor.GREEN + "Timings disabled.");
+				break;
+			case "reset":
+				mPlugin.getTimingsLog().logSummary("reset");
+				Timings.reset();
+				sender.sendMessage(ChatColor.GREEN + "Timings have been reset.");
+				break;
+			case "listeners":
+				showTimings(sender, "Listener", Timings.getAllHandlerTimings());
+				break;
+			case "commands":
+				showTimings(sender, "Command", Timings.getAllCommandTimings());
+				break;
+			default:
+				sender.sendMessage(ChatColor.GRAY + "Timings are " + (Timings.isEnabled() ? ChatColor.GREEN + "on" : ChatColor.RED + "off"));
+				sender.sendMessage(ChatColor.GRAY + "Usage: /pansentials timings <on|off|reset|listeners|commands>");
+				break;
+		}
+	}
+	
+	private void showTimings( CommandSender sender, String type, Collection<HandlerTimings> all )
+	{
+		List<HandlerTimings> handlers = new ArrayList<>();
+		for(HandlerTimings timings : all)
+		{
+			if(timings.getHistogram().getCount() > 0)
+				handlers.add(timings);
+		}
+		
+		if(handlers.isEmpty())
+		{
+			sender.sendMessage(ChatColor.GRAY + "No " + type.toLowerCase() + " timings recorded" + (Timings.isEnabled() ? "" : ", timings are off"));
+			return;
+		}
+		
+		// Most total time first
+		handlers.sort(Comparator.comparingLong((HandlerTimings timings) -> timings.getHistogram().getTotal()).reversed());
+		
+		sender.sendMessage(ChatColor.GRAY + type + " timings (" + ChatColor.YELLOW + handlers.size() + ChatColor.GRAY + " entries):");
+		for(int i = 0; i < handlers.size() && i < MAX_TIMING_LINES; ++i)
+		{
+			HandlerTimings timings = handlers.get(i);
+			LatencyHistogram histogram = timings.getHistogram();
+			
+			sender.sendMessage(ChatColor.YELLOW + timings.getOwner() + " " + ChatColor.WHITE + timings.getHandler() + ChatColor.GRAY
+				+ ": " + ChatColor.WHITE + histogram.getCount() + ChatColor.GRAY + " calls"
+				+ ", total " + ChatColor.WHITE + Timings.formatNanos(histogram.getTotal()) + ChatColor.GRAY
+				+ ", p50 " + ChatColor.WHITE + Timings.formatNanos(histogram.getPercentile(0.5)) + ChatColor.GRAY
+				+ ", p99 " + ChatColor.WHITE + Timings.formatNanos(histogram.getPercentile(0.99)) + ChatColor.GRAY
+				+ ", max " + ChatColor.WHITE + Timings.formatNanos(histogram.getMax()));
+		}
+	}
+	
+	private void showStats( CommandSender sender )
+	{
+		ArrayList<String> loaded = new ArrayList<>();
+		for(String module : mPlugin.getAllModules())
+		{
+			if(mPlugin.isModuleLoaded(module))
+				loaded.add(module);
+		}
+		
+		// Most expensive modules first
+		loaded.sort(Comparator.comparingLong((String module) -> mPlugin.getModuleStats(module).getEnableTime()).reversed());
+		
+		sender.sendMessage(ChatColor.GRAY + "Module stats (" + ChatColor.YELLOW + loaded.size() + ChatColor.GRAY + " loaded):");
+		for(String name : loaded)
+		{
+			Module module = mPlugin.getLoadedModule(name);
+			ModuleStats stats = mPlugin.getModuleStats(name);
+			
+			StringBuilder line = new StringBuilder();
+			line.append(ChatColor.YELLOW).append(name).append(ChatColor.GRAY)
+				.append(": prepare ").append(ChatColor.WHITE).append(stats.formatPrepareTime()).append(ChatColor.GRAY)
+				.append(", enable ").append(ChatColor.WHITE).append(stats.formatEnableTime()).append(ChatColor.GRAY)
+				.append(", disable ").append(ChatColor.WHITE).append(stats.formatDisableTime()).append(ChatColor.GRAY)
+				.append(", listeners ").append(ChatColor.WHITE).append(mPlugin.countListeners(name)).append(ChatColor.GRAY)
+				.append(", commands ").append(ChatColor.WHITE).append(mPlugin.countCommands(module)).append(ChatColor.GRAY);
+			
+			for(Map.Entry<String, Integer> state : module.getStateSizes().entrySet())
+				line.append(", ").append(state.getKey()).append(' ').append(ChatColor.WHITE).append(state.getValue()).append(ChatColor.GRAY);
+			
+			sender.sendMessage(line.toString());
+		}
+	}
+	
 	private List<String> matchModules(String module)
 	{
 		ArrayList<String> matching = new ArrayList<>();
@@ -124,7 +235,7 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 		if(args.length == 1)
 		{
 			if(args[0].isEmpty())
-				return Arrays.asList("enable", "disable", "reload", "reloadformat");
+				return Arrays.asList("enable", "disable", "reload", "reloadformat", "stats", "timings");
 			if("enable".startsWith(args[0].toLowerCase()))
 				return Collections.singletonList("enable");
 			if("disable".startsWith(args[0].toLowerCase()))
@@ -133,6 +244,10 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 				return Arrays.asList("reload", "reloadformat");
 			if("reloadformat".startsWith(args[0].toLowerCase()))
 				return Collections.singletonList("reloadformat");
+			if("stats".startsWith(args[0].toLowerCase()))
+				return Collections.singletonList("stats");
+			if("timings".startsWith(args[0].toLowerCase()))
+				return Collections.singletonList("timings");
 		}
 		else if(args.length == 2 && args[0].equalsIgnoreCase("reload"))
 			return matchModules(args[1]);
@@ -140,6 +255,8 @@ class PandoraCommand implements CommandExecutor, TabCompleter {
 			return matchModules(args[1]);
 		else if(args.length == 2 && args[0].equalsIgnoreCase("disable"))
 			return matchModules(args[1]);
+		else if(args.length == 2 && args[0].equalsIgnoreCase("timings"))
+			return Utilities.matchStrings(args[1], Arrays.asList("on", "off", "reset", "listeners", "commands"));
 		return null;
 	}
 	
@@ -0,0 +1,273 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.HeightMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Map;
+
+/**
+ * Finds the closest location to a target where a player can stand.
+ * Columns are searched in rings of increasing distance around the target, and each column
+ * from the target height outwards, so the search stops as soon as no unsearched
+ * position can be closer than the best one found. Columns without any blocks are skipped
+ * using the heightmap.
+ */
+final class SafeLocationFinder
+{
+	/**
+	 * The horizontal distance searched around the target
+	 */
+	static final int RANGE = 30;
+
+	private static final int NONE = Integer.MIN_VALUE;
+
+	/**
+	 * The blocks a search reads. Positions outside the world must read as air.
+	 */
+	interface BlockSource
+	{
+		Material getType(int x, int y, int z);
+
+		/**
+		 * @return The y of the highest block in the column that blocks motion or holds a fluid, as in the
+		 * 		MOTION_BLOCKING heightmap chunk snapshots carry, below the world minimum if there is none
+		 */
+		int getHighestY(int x, int z);
+
+		/**
+		 * @return True if a player can stand with their feet at this position
+		 */
+		default boolean isStandable(int x, int y, int z)
+		{
+			return Utilities.isStandable(getType(x, y, z), getType(x, y + 1, z), getType(x, y - 1, z));
+		}
+	}
+
+	private SafeLocationFinder()
+	{
+	}
+
+	/**
+	 * Searches for the closest standable position
+	 * @param target The location to search around
+	 * @param minY The lowest y of the world
+	 * @param maxY The highest y of the world, exclusive
+	 * @param blocks The blocks to search
+	 * @return The block location the player's feet should be at, or null if there is none in range
+	 */
+	static Location find(Location target, int minY, int maxY, BlockSource blocks)
+	{
+		double tx = target.getX();
+		double ty = target.getY();
+		double tz = target.getZ();
+		int bx = target.getBlockX();
+		int by = target.getBlockY();
+		int bz = target.getBlockZ();
+
+		double best = Double.MAX_VALUE;
+		int bestX = 0, bestY = 0, bestZ = 0;
+
+		for(int r = 0; r <= RANGE; ++r)
+		{
+			// Every column in this ring is at least r - 1 blocks away horizontally
+			if(r > 0 && (double)(r - 1) * (r - 1) >= best)
+				break;
+
+			for(int dx = -r; dx <= r; ++dx)
+			{
+				// Only the edge of the ring, the inside was searched by the previous rings
+				int step = (dx == -r || dx == r) ? 1 : 2 * r;
+				for(int dz = -r; dz <= r; dz += step)
+				{
+					// Keep to the area [-RANGE, RANGE) searched before
+					if(dx == RANGE || dz == RANGE)
+						continue;
+
+					int x = bx + dx;
+					int z = bz + dz;
+					double horizontal = (x - tx) * (x - tx) + (z - tz) * (z - tz);
+					if(horizontal >= best)
+						continue;
+
+					int highest = blocks.getHighestY(x, z);
+					if(highest < minY)
+						continue;
+
+					int y = searchColumn(blocks, x, z, ty, by, minY, maxY, highest, horizontal, best);
+					if(y != NONE)
+					{
+						best = horizontal + (y - ty) * (y - ty);
+						bestX = x;
+						bestY = y;
+						bestZ = z;
+					}
+				}
+			}
+		}
+
+		if(best == Double.MAX_VALUE)
+			return null;
+
+		return new Location(target.getWorld(), bestX, bestY, bestZ);
+	}
+
+	/**
+	 * Searches a single column for the standable position closest to the target height
+	 * @param target The location to search around
+	 * @param x The x of the column
+	 * @param z The z of the column
+	 * @param minY The lowest y of the world
+	 * @param maxY The highest y of the world, exclusive
+	 * @param blocks The blocks to search
+	 * @return The block location the player's feet should be at, or null if there is none in the column
+	 */
+	static Location findInColumn(Location target, int x, int z, int minY, int maxY, BlockSource blocks)
+	{
+		int highest = blocks.getHighestY(x, z);
+		if(highest < minY)
+			return null;
+
+		int y = searchColumn(blocks, x, z, target.getY(), target.getBlockY(), minY, maxY, highest, 0, Double.MAX_VALUE);
+		if(y == NONE)
+			return null;
+
+		return new Location(target.getWorld(), x, y, z);
+	}
+
+	/**
+	 * Searches a column from the target height outwards
+	 * @param horizontal The squared horizontal distance of the column from the target
+	 * @param best The squared distance of the closest position found so far
+	 * @return The y of the feet of a closer position in the column, or {@link #NONE} if there is none
+	 */
+	private static int searchColumn(BlockSource blocks, int x, int z, double ty, int by, int minY, int maxY, int highest, double horizontal, double best)
+	{
+		// Feet need ground below them and must be inside the world
+		int bottom = minY + 1;
+		int top = Math.min(maxY - 1, highest + 1);
+		int bestY = NONE;
+
+		for(int dy = 0; ; ++dy)
+		{
+			int below = by - dy;
+			int above = by + dy;
+			if(below < bottom && above > top)
+				break;
+
+			double minVertical = (dy == 0 ? 0 : (dy - 1) * (double)(dy - 1));
+			if(horizontal + minVertical >= best)
+				break;
+
+			if(below >= bottom && below <= top)
+			{
+				double dist = horizontal + (below - ty) * (below - ty);
+				if(dist < best && blocks.isStandable(x, below, z))
+				{
+					best = dist;
+					bestY = below;
+				}
+			}
+
+			if(dy != 0 && above >= bottom && above <= top)
+			{
+				double dist = horizontal + (above - ty) * (above - ty);
+				if(dist < best && blocks.isStandable(x, above, z))
+				{
+					best = dist;
+					bestY = above;
+				}
+			}
+		}
+
+		return bestY;
+	}
+
+	/**
+	 * Reads blocks directly from a loaded world, answering from the index for indexed chunks.
+	 * Must be used on the main thread.
+	 * @param index The index to answer from, or null to read every block
+	 */
+	static BlockSource of(World world, StandableIndex index)
+	{
+		return new BlockSource()
+		{
+			private long mLastKey = Long.MIN_VALUE;
+			private StandableIndex.ChunkIndex mLastIndex;
+
+			@Override
+			public boolean isStandable(int x, int y, int z)
+			{
+				long key = chunkKey(x >> 4, z >> 4);
+				if(key != mLastKey)
+				{
+					mLastKey = key;
+					mLastIndex = (index == null ? null : index.get(world, x >> 4, z >> 4));
+				}
+
+				if(mLastIndex != null)
+					return mLastIndex.isStandable(x, y, z);
+				return BlockSource.super.isStandable(x, y, z);
+			}
+
+			@Override
+			public Material getType(int x, int y, int z)
+			{
+				if(y < world.getMinHeight() || y >= world.getMaxHeight())
+					return Material.AIR;
+				return world.getBlockAt(x, y, z).getType();
+			}
+
+			@Override
+			public int getHighestY(int x, int z)
+			{
+				return world.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING);
+			}
+		};
+	}
+
+	/**
+	 * Reads blocks from chunk snapshots taken with their heightmap. Can be used from any thread.
+	 * @param chunks The snapshots by {@link #chunkKey(int, int)}. Columns in other chunks read as empty
+	 * @param indexed The built indexes of chunks that were indexed when the snapshots were taken
+	 */
+	static BlockSource of(Map<Long, ChunkSnapshot> chunks, Map<Long, StandableIndex.ChunkIndex> indexed, int minY, int maxY)
+	{
+		return new BlockSource()
+		{
+			@Override
+			public boolean isStandable(int x, int y, int z)
+			{
+				StandableIndex.ChunkIndex index = indexed.get(chunkKey(x >> 4, z >> 4));
+				if(index != null)
+					return index.isStandable(x, y, z);
+				return BlockSource.super.isStandable(x, y, z);
+			}
+
+			@Override
+			public Material getType(int x, int y, int z)
+			{
+				ChunkSnapshot chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+				if(chunk == null || y < minY || y >= maxY)
+					return Material.AIR;
+				return chunk.getBlockType(x & 15, y, z & 15);
+			}
+
+			@Override
+			public int getHighestY(int x, int z)
+			{
+				ChunkSnapshot chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+				if(chunk == null)
+					return minY - 1;
+				return chunk.getHighestBlockYAt(x & 15, z & 15);
+			}
+		};
+	}
+
+	static long chunkKey(int chunkX, int chunkZ)
+	{
+		return ((long)chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+}
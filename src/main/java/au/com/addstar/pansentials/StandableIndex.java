@@ -0,0 +1,372 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which positions of recently searched chunks a player can stand in, so repeated
+ * safe teleports to the same area read one bit per position instead of three blocks.
+ * A chunk is indexed in the background from a snapshot once an async safe teleport has searched it,
+ * or a synchronous one has searched it twice,
+ * and is dropped as soon as a block in it changes or it unloads. Only the most recently
+ * used chunks across all worlds are kept, and the block change handlers are only registered while chunks are indexed.
+ * All methods must be called from the main thread.
+ */
+final class StandableIndex
+{
+	/**
+	 * The maximum number of chunks kept indexed. A chunk takes up to 12KB
+	 */
+	private static final int MAX_CHUNKS = 256;
+
+	private final MasterPlugin mPlugin;
+	private final LinkedHashMap<ChunkKey, ChunkIndex> mChunks;
+	/**
+	 * Chunks searched once through the live world without being indexed
+	 */
+	private final Set<ChunkKey> mSearched;
+	private final InvalidationListener mListener;
+	private boolean mListening;
+
+	StandableIndex(MasterPlugin plugin)
+	{
+		mPlugin = plugin;
+		mChunks = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ChunkKey, ChunkIndex> eldest)
+			{
+				return size() > MAX_CHUNKS;
+			}
+		};
+		mSearched = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ChunkKey, Boolean> eldest)
+			{
+				return size() > MAX_CHUNKS;
+			}
+		});
+		mListener = new InvalidationListener();
+	}
+
+	/**
+	 * Identifies a chunk in any world
+	 */
+	private static final class ChunkKey
+	{
+		private final UUID mWorld;
+		private final long mChunk;
+
+		ChunkKey(World world, int chunkX, int chunkZ)
+		{
+			mWorld = world.getUID();
+			mChunk = SafeLocationFinder.chunkKey(chunkX, chunkZ);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof ChunkKey))
+				return false;
+
+			ChunkKey other = (ChunkKey)obj;
+			return mChunk == other.mChunk && mWorld.equals(other.mWorld);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * mWorld.hashCode() + Long.hashCode(mChunk);
+		}
+	}
+
+	/**
+	 * The standable positions of one chunk. Positions are looked up with {@link #isStandable(int, int, int)}.
+	 * Immutable once built, so it can be read from any thread.
+	 */
+	static final class ChunkIndex
+	{
+		private final int mMinY;
+		private final int mMaxY;
+		private volatile BitSet mBits;
+
+		private ChunkIndex(int minY, int maxY)
+		{
+			mMinY = minY;
+			mMaxY = maxY;
+		}
+
+		boolean isBuilt()
+		{
+			return mBits != null;
+		}
+
+		/**
+		 * @param x The block x, only the position within the chunk is used
+		 * @param y The block y
+		 * @param z The block z, only the position within the chunk is used
+		 */
+		boolean isStandable(int x, int y, int z)
+		{
+			if(y < mMinY || y >= mMaxY)
+				return false;
+
+			return mBits.get(((y - mMinY) << 8) | ((z & 15) << 4) | (x & 15));
+		}
+
+		/**
+		 * Checks the positions a block can make standable or not against the live world.
+		 * The block can be the ground, the feet or the head of a player.
+		 * @return True if the index still holds for all of them
+		 */
+		private boolean matches(Block block)
+		{
+			World world = block.getWorld();
+			int x = block.getX();
+			int y = block.getY();
+			int z = block.getZ();
+
+			// The types from the ground below the lowest position to the head of the highest
+			Material[] types = new Material[5];
+			for(int i = 0; i < types.length; ++i)
+			{
+				int by = y - 2 + i;
+				types[i] = (by < mMinY || by >= mMaxY ? Material.AIR : world.getBlockAt(x, by, z).getType());
+			}
+
+			for(int i = 1; i <= 3; ++i)
+			{
+				int feet = y - 2 + i;
+				if(feet <= mMinY || feet >= mMaxY)
+					continue;
+
+				if(isStandable(x, feet, z) != Utilities.isStandable(types[i], types[i + 1], types[i - 1]))
+					return false;
+			}
+
+			return true;
+		}
+
+		private static BitSet build(ChunkSnapshot chunk, int minY, int maxY)
+		{
+			BitSet bits = new BitSet((maxY - minY) << 8);
+			for(int x = 0; x < 16; ++x)
+			{
+				for(int z = 0; z < 16; ++z)
+				{
+					int top = Math.min(maxY - 1, chunk.getHighestBlockYAt(x, z) + 1);
+					Material ground = chunk.getBlockType(x, minY, z);
+					Material feet = (minY + 1 < maxY ? chunk.getBlockType(x, minY + 1, z) : Material.AIR);
+					for(int y = minY + 1; y <= top; ++y)
+					{
+						Material head = (y + 1 < maxY ? chunk.getBlockType(x, y + 1, z) : Material.AIR);
+						if(Utilities.isStandable(feet, head, ground))
+							bits.set(((y - minY) << 8) | (z << 4) | x);
+
+						ground = feet;
+						feet = head;
+					}
+				}
+			}
+
+			return bits;
+		}
+	}
+
+	/**
+	 * @return The built index of a chunk, or null if it is not indexed
+	 */
+	ChunkIndex get(World world, int chunkX, int chunkZ)
+	{
+		ChunkIndex index = mChunks.get(new ChunkKey(world, chunkX, chunkZ));
+		if(index == null || !index.isBuilt())
+			return null;
+
+		return index;
+	}
+
+	/**
+	 * Indexes a chunk in the background unless it is already indexed or being indexed.
+	 * If a block in the chunk changes before the index is built, the index is discarded.
+	 * @param snapshot Takes a snapshot of the chunk with its heightmap, only called if the chunk needs indexing
+	 */
+	void request(World world, int chunkX, int chunkZ, Supplier<ChunkSnapshot> snapshot)
+	{
+		ChunkKey key = new ChunkKey(world, chunkX, chunkZ);
+		if(mChunks.containsKey(key))
+			return;
+
+		ChunkSnapshot chunk = snapshot.get();
+
+		int minY = world.getMinHeight();
+		int maxY = world.getMaxHeight();
+		ChunkIndex index = new ChunkIndex(minY, maxY);
+
+		mChunks.put(key, index);
+		updateListener();
+
+		CompletableFuture.supplyAsync(() -> ChunkIndex.build(chunk, minY, maxY), task -> Bukkit.getScheduler().runTaskAsynchronously(mPlugin, task))
+			.thenAcceptAsync(bits ->
+			{
+				// Only keep it if nothing changed in the chunk since the snapshot
+				if(mChunks.get(key) == index)
+					index.mBits = bits;
+			}, Bukkit.getScheduler().getMainThreadExecutor(mPlugin));
+	}
+
+	/**
+	 * Indexes a chunk that was searched through the live world, but only the second time it is
+	 * searched and only while it is loaded. Taking the snapshot is the part of indexing done on
+	 * the main thread, so one off searches of an area do not pay for it.
+	 */
+	void requestSearched(World world, int chunkX, int chunkZ)
+	{
+		ChunkKey key = new ChunkKey(world, chunkX, chunkZ);
+		if(mChunks.containsKey(key) || !world.isChunkLoaded(chunkX, chunkZ))
+			return;
+
+		if(mSearched.add(key))
+			return;
+
+		mSearched.remove(key);
+		request(world, chunkX, chunkZ, () -> world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(true, false, false));
+	}
+
+	/**
+	 * Drops every index. Called when the plugin is disabled.
+	 */
+	void clear()
+	{
+		mChunks.clear();
+		mSearched.clear();
+		updateListener();
+	}
+
+	private void invalidate(Block block)
+	{
+		invalidate(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+	}
+
+	/**
+	 * Drops the index of the chunk of a block that went through physics, unless the positions the
+	 * block affects are still classified the same. Physics fires for every neighbour of most block
+	 * changes, and those neighbours almost never change whether a player can stand there.
+	 */
+	private void update(Block block)
+	{
+		ChunkIndex index = mChunks.get(new ChunkKey(block.getWorld(), block.getX() >> 4, block.getZ() >> 4));
+		if(index == null)
+			return;
+
+		// An index still being built may have been taken from a snapshot older than this change
+		if(!index.isBuilt() || !index.matches(block))
+			invalidate(block);
+	}
+
+	/**
+	 * Drops the index of a chunk, for when it was found to be out of date
+	 */
+	void invalidate(World world, int chunkX, int chunkZ)
+	{
+		if(mChunks.remove(new ChunkKey(world, chunkX, chunkZ)) != null)
+			updateListener();
+	}
+
+	private void invalidateAll(List<Block> blocks)
+	{
+		for(Block block : blocks)
+			invalidate(block);
+	}
+
+	private void updateListener()
+	{
+		boolean listen = !mChunks.isEmpty();
+		if(listen == mListening || (listen && !mPlugin.isEnabled()))
+			return;
+
+		// Plain executors, physics fires far too often to time each call
+		if(listen)
+			Bukkit.getPluginManager().registerEvents(mListener, mPlugin);
+		else
+			HandlerList.unregisterAll(mListener);
+
+		mListening = listen;
+	}
+
+	private class InvalidationListener implements Listener
+	{
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		private void onPlace(BlockPlaceEvent event)
+		{
+			invalidate(event.getBlock());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		private void onBreak(BlockBreakEvent event)
+		{
+			invalidate(event.getBlock());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		private void onPhysics(BlockPhysicsEvent event)
+		{
+			update(event.getBlock());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		private void onBlockExplode(BlockExplodeEvent event)
+		{
+			invalidateAll(event.blockList());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		private void onEntityExplode(EntityExplodeEvent event)
+		{
+			invalidateAll(event.blockList());
+		}
+
+		@EventHandler
+		private void onChunkUnload(ChunkUnloadEvent event)
+		{
+			invalidate(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+		}
+
+		@EventHandler
+		private void onWorldUnload(WorldUnloadEvent event)
+		{
+			UUID world = event.getWorld().getUID();
+			for(Iterator<ChunkKey> it = mChunks.keySet().iterator(); it.hasNext();)
+			{
+				if(it.next().mWorld.equals(world))
+					it.remove();
+			}
+			updateListener();
+		}
+	}
+}
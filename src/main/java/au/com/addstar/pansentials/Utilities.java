@@ -1,12 +1,17 @@
 package au.com.addstar.pansentials;
 
 
+import au.com.addstar.pansentials.args.Durations;
+import au.com.addstar.pansentials.jfr.HeavyOperationEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.HandlerList;
@@ -17,177 +22,151 @@ import org.bukkit.plugin.RegisteredListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Utilities
 {
+	/**
+	 * Parses a duration such as "1d12h" or "-2w"
+	 * @return The duration in milliseconds, or 0 if it is not a valid duration
+	 * @see Durations#parse(String)
+	 */
 	public static long parseDateDiff(String dateDiff)
 	{
-		if(dateDiff == null)
-			return 0;
+		return Durations.parse(dateDiff);
+	}
+	
+	/**
+	 * Teleports a player to the closest location near the target where they can stand.
+	 * Blocks are read on the calling thread, which must be the main thread.
+	 * @return True if a location was found and the player was teleported
+	 */
+	public static boolean safeTeleport(Player player, Location loc)
+	{
+		HeavyOperationEvent event = new HeavyOperationEvent();
+		event.begin();
 		
-		Pattern dateDiffPattern = Pattern.compile("^\\s*(\\-|\\+)?\\s*(?:([0-9]+)y)?\\s*(?:([0-9]+)mo)?\\s*(?:([0-9]+)w)?\\s*(?:([0-9]+)d)?\\s*(?:([0-9]+)h)?\\s*(?:([0-9]+)m)?\\s*(?:([0-9]+)s)?\\s*$");
-		dateDiff = dateDiff.toLowerCase();
+		World world = loc.getWorld();
+		StandableIndex index = MasterPlugin.getInstance().getStandableIndex();
+		Location closest = SafeLocationFinder.find(loc, world.getMinHeight(), world.getMaxHeight(), SafeLocationFinder.of(world, index));
+		closest = verify(world, loc, closest, index);
 		
-		Matcher m = dateDiffPattern.matcher(dateDiff);
-
-		if (m.matches()) {
-			int years, months, weeks, days, hours, minutes, seconds;
-			boolean negative;
-
-			negative = m.group(1) != null && (m.group(1).compareTo("-") == 0);
-
-			if (m.group(2) != null)
-				years = Integer.parseInt(m.group(2));
-			else
-				years = 0;
-
-			if (m.group(3) != null)
-				months = Integer.parseInt(m.group(3));
-			else
-				months = 0;
-
-			if (m.group(4) != null)
-				weeks = Integer.parseInt(m.group(4));
-			else
-				weeks = 0;
-
-			if (m.group(5) != null)
-				days = Integer.parseInt(m.group(5));
-			else
-				days = 0;
-
-			if (m.group(6) != null)
-				hours = Integer.parseInt(m.group(6));
-			else
-				hours = 0;
-
-			if (m.group(7) != null)
-				minutes = Integer.parseInt(m.group(7));
-			else
-				minutes = 0;
-
-			if (m.group(8) != null)
-				seconds = Integer.parseInt(m.group(8));
-			else
-				seconds = 0;
-
-			// Now calculate the time
-			long time = 0;
-			time += seconds * 1000L;
-			time += minutes * 60000L;
-			time += hours * 3600000L;
-			time += days * 72000000L;
-			time += weeks * 504000000L;
-			time += months * 2191500000L;
-			time += years * 26298000000L;
-
-			if (negative)
-				time *= -1;
-
-			return time;
-		}
+		event.complete("safeTeleport", world.getName(), closest == null ? 0 : 1);
 		
-		return 0;
+		// Index the target chunk if teleports here repeat, so later ones can skip reading blocks
+		index.requestSearched(world, loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+		
+		return teleportTo(player, loc, closest);
 	}
 	
-	public static boolean safeTeleport(Player player, Location loc)
+	/**
+	 * Teleports a player to the closest location near the target where they can stand,
+	 * without searching on the main thread. The chunks around the target are loaded
+	 * asynchronously, captured as snapshots and searched on a worker thread.
+	 * Must be called from the main thread.
+	 * @return A future completing on the main thread with true once the player was teleported,
+	 *         or false if no location was found or the player left
+	 */
+	public static CompletableFuture<Boolean> safeTeleportAsync(Player player, Location loc)
 	{
-		int horRange = 30;
+		MasterPlugin plugin = MasterPlugin.getInstance();
+		StandableIndex index = plugin.getStandableIndex();
+		Executor mainThread = Bukkit.getScheduler().getMainThreadExecutor(plugin);
+		Executor worker = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
 		
-		double closestDist = Double.MAX_VALUE;
-		Location closest = null;
+		World world = loc.getWorld();
+		int minY = world.getMinHeight();
+		int maxY = world.getMaxHeight();
+		int range = SafeLocationFinder.RANGE;
 		
-		for(int y = 0; y < loc.getWorld().getMaxHeight(); ++y)
+		Map<Long, CompletableFuture<Chunk>> loading = new HashMap<>();
+		for(int cx = (loc.getBlockX() - range) >> 4; cx <= (loc.getBlockX() + range - 1) >> 4; ++cx)
 		{
-			for(int x = loc.getBlockX() - horRange; x < loc.getBlockX() + horRange; ++x)
+			for(int cz = (loc.getBlockZ() - range) >> 4; cz <= (loc.getBlockZ() + range - 1) >> 4; ++cz)
+				loading.put(SafeLocationFinder.chunkKey(cx, cz), world.getChunkAtAsync(cx, cz));
+		}
+		
+		Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+		Map<Long, StandableIndex.ChunkIndex> indexed = new HashMap<>();
+		
+		return CompletableFuture.allOf(loading.values().toArray(new CompletableFuture<?>[0]))
+			.thenRunAsync(() ->
 			{
-				for(int z = loc.getBlockZ() - horRange; z < loc.getBlockZ() + horRange; ++z)
+				// Snapshots and indexes must be read on the main thread
+				for(Map.Entry<Long, CompletableFuture<Chunk>> entry : loading.entrySet())
 				{
-					for(int i = 0; i < 2; ++i)
-					{
-						int yy = loc.getBlockY();
-						
-						if(i == 0)
-						{
-							yy -= y;
-							if(yy < 0)
-								continue;
-						}
-						else
-						{
-							yy += y;
-							if(yy >= loc.getWorld().getMaxHeight())
-								continue;
-						}
-	
-						Location l = new Location(loc.getWorld(), x, yy, z);
-						double dist = loc.distanceSquared(l);
-						
-						if(dist < closestDist && isSafeLocation(l))
-						{
-							closest = l;
-							closestDist = dist;
-						}
-					}
+					Chunk chunk = entry.getValue().join();
+					ChunkSnapshot snapshot = chunk.getChunkSnapshot(true, false, false);
+					snapshots.put(entry.getKey(), snapshot);
+					
+					StandableIndex.ChunkIndex chunkIndex = index.get(world, chunk.getX(), chunk.getZ());
+					if(chunkIndex != null)
+						indexed.put(entry.getKey(), chunkIndex);
 				}
-			}
-			
-			if(y*y > closestDist)
-				break;
-		}
-		
+				
+				index.request(world, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, () -> snapshots.get(SafeLocationFinder.chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)));
+			}, mainThread)
+			.thenApplyAsync(ignored ->
+			{
+				HeavyOperationEvent event = new HeavyOperationEvent();
+				event.begin();
+				
+				Location closest = SafeLocationFinder.find(loc, minY, maxY, SafeLocationFinder.of(snapshots, indexed, minY, maxY));
+				
+				event.complete("safeTeleportAsync", world.getName(), closest == null ? 0 : 1);
+				return closest;
+			}, worker)
+			.thenApplyAsync(closest -> player.isOnline() && teleportTo(player, loc, verify(world, loc, closest, index)), mainThread);
+	}
+	
+	/**
+	 * Checks a found location against the live blocks. The index and snapshots can miss block
+	 * changes that fire no event, such as those made by other plugins without physics.
+	 * Must be called from the main thread.
+	 * @return The location if it is still standable, otherwise the closest standable position
+	 *         in the same column going by the live blocks, or null if the column has none
+	 */
+	private static Location verify(World world, Location target, Location closest, StandableIndex index)
+	{
 		if(closest == null)
-			return false;
+			return null;
 		
-		closest.setPitch(loc.getPitch());
-		closest.setYaw(loc.getYaw());
+		Block feet = closest.getBlock();
+		if(isStandable(feet.getType(), feet.getRelative(BlockFace.UP).getType(), feet.getRelative(BlockFace.DOWN).getType()))
+			return closest;
 		
-		return player.teleport(closest.add(0.5, 0, 0.5));
+		// Drop the out of date chunk and search only this column again, without trusting any index
+		index.invalidate(world, closest.getBlockX() >> 4, closest.getBlockZ() >> 4);
+		return SafeLocationFinder.findInColumn(target, closest.getBlockX(), closest.getBlockZ(), world.getMinHeight(), world.getMaxHeight(), SafeLocationFinder.of(world, null));
 	}
-
-    private static boolean isSafeLocation(Location loc)
+	
+	private static boolean teleportTo(Player player, Location target, Location closest)
 	{
-		Block feet = loc.getBlock();
-		Block ground = feet.getRelative(BlockFace.DOWN);
-		Block head = feet.getRelative(BlockFace.UP);
+		if(closest == null)
+			return false;
 		
-		return (isSafe(feet) && isSafe(head) && (head.getType() != Material.WATER) && ground.getType().isSolid());
+		closest.setPitch(target.getPitch());
+		closest.setYaw(target.getYaw());
+		
+		return player.teleport(closest.add(0.5, 0, 0.5));
 	}
 	
-	private static boolean isSafe(Block block)
+	/**
+	 * Checks if a player can stand with their feet in a block
+	 * @param feet The block the feet are in
+	 * @param head The block above it
+	 * @param ground The block below it
+	 */
+	static boolean isStandable(Material feet, Material head, Material ground)
 	{
-		switch(block.getType())
-		{
-			case AIR:
-			case SUGAR_CANE:
-			case WATER:
-			case GRASS:
-			case WHEAT:
-			case BEETROOT:
-			case SEAGRASS:
-			case CAVE_AIR:
-			case TORCH:
-			case WALL_TORCH:
-			case CARROT:
-			case POTATO:
-			case RED_MUSHROOM:
-			case ROSE_BUSH:
-			case BROWN_MUSHROOM:
-			case OXEYE_DAISY:
-			case DEAD_BUSH:
-			case OAK_SIGN:
-			case OAK_WALL_SIGN:
-			return true;
-		default:
-			return false;
-		}
+		return Walkability.isStandable(feet, head, ground);
 	}
 	
 	public static void adjustEventHandlerPosition(HandlerList list, Listener listener, String beforePlugin)
@@ -258,8 +237,7 @@ public class Utilities
 	}
 	
 	public static String format(FileConfiguration config, String path){
-		if(!config.contains(path)) return ChatColor.RED + "No format value found for path:" + path + "!";
-		return ChatColor.translateAlternateColorCodes("&".charAt(0), config.getString(path));
+		return MessageTemplates.of(config).get(path).render();
 	}
 	
 	/**
@@ -270,13 +248,40 @@ public class Utilities
 	 * @return A formatted string
 	 */
 	public static String format(FileConfiguration config, String path, String... args){
-		if(!config.contains(path)) return ChatColor.RED + "No format value found for path:" + path + "!";
-		String form = ChatColor.translateAlternateColorCodes("&".charAt(0), config.getString(path));
-		for(String arg : args){
-			String[] parts = arg.split(":", 2);
-			form = form.replaceAll(parts[0], parts[1]);
-		}
-		return form;
+		return MessageTemplates.of(config).get(path).render(args);
+	}
+	
+	/**
+	 * Formats a string from the format file
+	 * @param config The format config
+	 * @param path The path of the config
+	 * @param values The placeholder values, keyed by name without the surrounding '%'
+	 * @return A formatted string
+	 */
+	public static String format(FileConfiguration config, String path, Map<String, ?> values){
+		return MessageTemplates.of(config).get(path).render(values);
+	}
+	
+	/**
+	 * Formats a string in the language of the recipient
+	 * @param recipient The one the message will be sent to
+	 * @param path The path of the message
+	 * @param args Must match "%idname%:replacement
+	 * @return A formatted string
+	 */
+	public static String format(CommandSender recipient, String path, String... args){
+		return MasterPlugin.getInstance().getMessages(recipient).get(path).render(args);
+	}
+	
+	/**
+	 * Formats a string in the language of the recipient
+	 * @param recipient The one the message will be sent to
+	 * @param path The path of the message
+	 * @param values The placeholder values, keyed by name without the surrounding '%'
+	 * @return A formatted string
+	 */
+	public static String format(CommandSender recipient, String path, Map<String, ?> values){
+		return MasterPlugin.getInstance().getMessages(recipient).get(path).render(values);
 	}
 	
 	public static int parseInt(String value, String error)
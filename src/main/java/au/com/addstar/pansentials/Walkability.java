@@ -0,0 +1,148 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.Material;
+import org.bukkit.Tag;
+
+import java.util.Collection;
+import java.util.logging.Logger;
+
+/**
+ * Classifies every block material for safe teleports: whether a player's feet or head can
+ * be in it, and whether they can stand on it. The classification is computed once per material
+ * and stored by ordinal, so each check is a single array read.
+ */
+final class Walkability
+{
+	/**
+	 * Feet can be in this block
+	 */
+	static final byte FEET = 1;
+	/**
+	 * The head can be in this block
+	 */
+	static final byte HEAD = 2;
+	/**
+	 * A player can stand on this block
+	 */
+	static final byte GROUND = 4;
+
+	/**
+	 * Built by {@link #configure(Collection, Collection, Logger)} when the plugin is enabled. Until then nothing is standable
+	 */
+	private static volatile byte[] sFlags = new byte[Material.values().length];
+
+	private Walkability()
+	{
+	}
+
+	/**
+	 * Builds the table with the overrides from the config
+	 * @param passable Names of materials a player can always stand in, unless they are also hazards
+	 * @param hazards Names of materials a player is never put in or on
+	 * @param logger Where to report unknown material names
+	 */
+	static void configure(Collection<String> passable, Collection<String> hazards, Logger logger)
+	{
+		sFlags = build(passable, hazards, logger);
+	}
+
+	static boolean isStandable(Material feet, Material head, Material ground)
+	{
+		byte[] flags = sFlags;
+		return (flags[feet.ordinal()] & FEET) != 0
+			&& (flags[head.ordinal()] & HEAD) != 0
+			&& (flags[ground.ordinal()] & GROUND) != 0;
+	}
+
+	private static byte[] build(Collection<String> passable, Collection<String> hazards, Logger logger)
+	{
+		Material[] materials = Material.values();
+		byte[] flags = new byte[materials.length];
+
+		for(Material material : materials)
+		{
+			// Legacy materials never appear in the world, and touching them loads the legacy mappings
+			if(material.isLegacy() || !material.isBlock() || isHazard(material))
+				continue;
+
+			byte value = 0;
+			if(isPassable(material))
+			{
+				value |= FEET;
+				if(!isLiquid(material))
+					value |= HEAD;
+			}
+			if(material.isSolid())
+				value |= GROUND;
+
+			flags[material.ordinal()] = value;
+		}
+
+		for(String name : passable)
+		{
+			Material material = match(name, logger);
+			if(material != null)
+				flags[material.ordinal()] |= FEET | HEAD;
+		}
+
+		for(String name : hazards)
+		{
+			Material material = match(name, logger);
+			if(material != null)
+				flags[material.ordinal()] = 0;
+		}
+
+		return flags;
+	}
+
+	private static boolean isPassable(Material material)
+	{
+		// Thin blocks count as solid but are only a fraction of a block high
+		return !material.isSolid()
+			|| Tag.WOOL_CARPETS.isTagged(material)
+			|| material == Material.MOSS_CARPET
+			|| material == Material.SNOW;
+	}
+
+	private static boolean isLiquid(Material material)
+	{
+		return material == Material.WATER
+			|| material == Material.LAVA
+			|| material == Material.BUBBLE_COLUMN;
+	}
+
+	private static boolean isHazard(Material material)
+	{
+		switch(material)
+		{
+			case LAVA:
+			case MAGMA_BLOCK:
+			case CACTUS:
+			case CAMPFIRE:
+			case SOUL_CAMPFIRE:
+			case SWEET_BERRY_BUSH:
+			case WITHER_ROSE:
+			case POWDER_SNOW:
+			case COBWEB:
+			case POINTED_DRIPSTONE:
+			case NETHER_PORTAL:
+			case END_PORTAL:
+			case END_GATEWAY:
+				return true;
+			default:
+				return Tag.FIRE.isTagged(material);
+		}
+	}
+
+	private static Material match(String name, Logger logger)
+	{
+		Material material = Material.matchMaterial(name);
+		if(material == null || !material.isBlock())
+		{
+			logger.warning("Unknown block material in config.yml: " + name);
+			return null;
+		}
+
+		return material;
+	}
+}
@@ -0,0 +1,96 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * A target followed by coordinates in brackets, such as "[1,64,-20]", "Steve[~,~5,~]"
+ * or "@a#survival[~5,~,~-15]". The target is made of letters, digits and '_', '@' or '#',
+ * and may be empty.
+ */
+public final class CoordinateSpec
+{
+	private final String mTarget;
+	private final RelativeCoordinate mX;
+	private final RelativeCoordinate mY;
+	private final RelativeCoordinate mZ;
+
+	private CoordinateSpec(String target, RelativeCoordinate x, RelativeCoordinate y, RelativeCoordinate z)
+	{
+		mTarget = target;
+		mX = x;
+		mY = y;
+		mZ = z;
+	}
+
+	/**
+	 * Finds the first coordinate spec in the text. Text before the target and after
+	 * the closing bracket is ignored.
+	 * @return The spec, or null if the text contains none
+	 */
+	public static CoordinateSpec find(String text)
+	{
+		for(int open = text.indexOf('['); open != -1; open = text.indexOf('[', open + 1))
+		{
+			int start = open;
+			while(start > 0 && isTargetChar(text.charAt(start - 1)))
+				--start;
+
+			int firstComma = text.indexOf(',', open + 1);
+			int secondComma = (firstComma == -1 ? -1 : text.indexOf(',', firstComma + 1));
+			int close = (secondComma == -1 ? -1 : text.indexOf(']', secondComma + 1));
+			if(close == -1)
+				continue;
+
+			RelativeCoordinate x = parseComponent(text, open + 1, firstComma);
+			RelativeCoordinate y = parseComponent(text, firstComma + 1, secondComma);
+			RelativeCoordinate z = parseComponent(text, secondComma + 1, close);
+			if(x != null && y != null && z != null)
+				return new CoordinateSpec(text.substring(start, open), x, y, z);
+		}
+
+		return null;
+	}
+
+	private static RelativeCoordinate parseComponent(String text, int start, int end)
+	{
+		// Each coordinate needs at least one character, a blank one is not "~"
+		if(start >= end)
+			return null;
+
+		return RelativeCoordinate.parse(text.substring(start, end));
+	}
+
+	private static boolean isTargetChar(char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '@' || c == '#';
+	}
+
+	/**
+	 * @return The text before the brackets, empty if there is none
+	 */
+	public String getTarget()
+	{
+		return mTarget;
+	}
+
+	public RelativeCoordinate getX()
+	{
+		return mX;
+	}
+
+	public RelativeCoordinate getY()
+	{
+		return mY;
+	}
+
+	public RelativeCoordinate getZ()
+	{
+		return mZ;
+	}
+
+	/**
+	 * @return True if any of the coordinates is relative
+	 */
+	public boolean isRelative()
+	{
+		return mX.isRelative() || mY.isRelative() || mZ.isRelative();
+	}
+}
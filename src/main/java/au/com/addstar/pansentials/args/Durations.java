@@ -0,0 +1,125 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * Parses durations such as "1d12h" or "-2w 3d". Each unit may appear at most once, and units
+ * must be given from largest to smallest: y, mo, w, d, h, m, s.
+ */
+public final class Durations
+{
+	public static final long SECOND = 1000L;
+	public static final long MINUTE = 60000L;
+	public static final long HOUR = 3600000L;
+	/*
+	 * The lengths of the larger units are the values Utilities.parseDateDiff has always used,
+	 * kept so existing durations mean the same thing
+	 */
+	public static final long DAY = 72000000L;
+	public static final long WEEK = 504000000L;
+	public static final long MONTH = 2191500000L;
+	public static final long YEAR = 26298000000L;
+
+	private static final long[] UNIT_MILLIS = {YEAR, MONTH, WEEK, DAY, HOUR, MINUTE, SECOND};
+	private static final int YEARS = 0, MONTHS = 1, WEEKS = 2, DAYS = 3, HOURS = 4, MINUTES = 5, SECONDS = 6;
+
+	private Durations()
+	{
+	}
+
+	/**
+	 * Parses a duration. Letters are case insensitive and whitespace is allowed between the parts.
+	 * @param text The duration, may be null
+	 * @return The duration in milliseconds, negative when it starts with '-'. 0 if the text is not a valid duration,
+	 * 		or if it is too long to be held in milliseconds
+	 */
+	public static long parse(String text)
+	{
+		if(text == null)
+			return 0;
+
+		int length = text.length();
+		int i = skipWhitespace(text, 0);
+
+		boolean negative = false;
+		if(i < length && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+		{
+			negative = (text.charAt(i) == '-');
+			i = skipWhitespace(text, i + 1);
+		}
+
+		long time = 0;
+		int nextUnit = YEARS;
+		while(i < length)
+		{
+			int start = i;
+			int value = 0;
+			while(i < length && isDigit(text.charAt(i)))
+			{
+				int digit = text.charAt(i) - '0';
+				if(value > (Integer.MAX_VALUE - digit) / 10)
+					return 0;
+
+				value = value * 10 + digit;
+				++i;
+			}
+
+			if(i == start || i == length)
+				return 0;
+
+			int unit;
+			switch(Character.toLowerCase(text.charAt(i)))
+			{
+			case 'y':
+				unit = YEARS;
+				break;
+			case 'm':
+				unit = (i + 1 < length && Character.toLowerCase(text.charAt(i + 1)) == 'o') ? MONTHS : MINUTES;
+				break;
+			case 'w':
+				unit = WEEKS;
+				break;
+			case 'd':
+				unit = DAYS;
+				break;
+			case 'h':
+				unit = HOURS;
+				break;
+			case 's':
+				unit = SECONDS;
+				break;
+			default:
+				return 0;
+			}
+
+			// Each unit once, largest first
+			if(unit < nextUnit)
+				return 0;
+
+			i += (unit == MONTHS ? 2 : 1);
+			try
+			{
+				time = Math.addExact(time, Math.multiplyExact(value, UNIT_MILLIS[unit]));
+			}
+			catch(ArithmeticException e)
+			{
+				return 0;
+			}
+			nextUnit = unit + 1;
+			i = skipWhitespace(text, i);
+		}
+
+		return (negative ? -time : time);
+	}
+
+	private static int skipWhitespace(String text, int index)
+	{
+		while(index < text.length() && Numbers.isWhitespace(text.charAt(index)))
+			++index;
+
+		return index;
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+}
@@ -0,0 +1,46 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * An amount of experience, given either in points ("250") or in levels ("L5")
+ */
+public final class ExpAmount
+{
+	private final int mAmount;
+	private final boolean mLevels;
+
+	private ExpAmount(int amount, boolean levels)
+	{
+		mAmount = amount;
+		mLevels = levels;
+	}
+
+	/**
+	 * @param text Digits for points, or 'L' followed by digits for levels
+	 * @return The amount, or null if the text is not in either form
+	 */
+	public static ExpAmount parse(String text)
+	{
+		if(text == null)
+			return null;
+
+		boolean levels = text.startsWith("L");
+		int amount = Numbers.parseUnsignedInt(levels ? text.substring(1) : text);
+		if(amount < 0)
+			return null;
+
+		return new ExpAmount(amount, levels);
+	}
+
+	public int getAmount()
+	{
+		return mAmount;
+	}
+
+	/**
+	 * @return True if the amount is in levels, false if it is in points
+	 */
+	public boolean isLevels()
+	{
+		return mLevels;
+	}
+}
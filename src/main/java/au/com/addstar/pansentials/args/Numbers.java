@@ -0,0 +1,125 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * Parses plain numbers from command arguments. Invalid input is reported through
+ * the return value rather than an exception.
+ */
+public final class Numbers
+{
+	private Numbers()
+	{
+	}
+
+	/**
+	 * Parses a non-empty string of decimal digits
+	 * @return The value, or -1 if the text is null, empty, contains anything but digits or does not fit an int
+	 */
+	public static int parseUnsignedInt(String text)
+	{
+		if(text == null || text.isEmpty())
+			return -1;
+
+		int value = 0;
+		for(int i = 0; i < text.length(); ++i)
+		{
+			char c = text.charAt(i);
+			if(c < '0' || c > '9')
+				return -1;
+
+			int digit = c - '0';
+			if(value > (Integer.MAX_VALUE - digit) / 10)
+				return -1;
+
+			value = value * 10 + digit;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parses digits optionally followed by a '.' and more digits, such as "3" or "0.25"
+	 * @return The value, or NaN if the text is not in that form
+	 */
+	public static float parseUnsignedDecimal(String text)
+	{
+		if(!isDecimal(text, 0, false))
+			return Float.NaN;
+
+		return Float.parseFloat(text);
+	}
+
+	/**
+	 * Parses a number as {@link #parseUnsignedDecimal(String)} does, and checks it is within bounds
+	 * @return The value, or NaN if the text is not in that form or the value is not within [min, max]
+	 */
+	public static float parseUnsignedDecimal(String text, float min, float max)
+	{
+		float value = parseUnsignedDecimal(text);
+		if(value < min || value > max)
+			return Float.NaN;
+
+		return value;
+	}
+
+	/**
+	 * Parses an optionally signed decimal number, such as "-12", "+3.5" or ".5"
+	 * @return The value, or NaN if the text is not in that form
+	 */
+	public static double parseDecimal(String text)
+	{
+		if(!isDecimal(text, 0, true))
+			return Double.NaN;
+
+		return Double.parseDouble(text);
+	}
+
+	/**
+	 * Checks if part of a string is a decimal number. Once checked, the text is always accepted by
+	 * {@link Float#parseFloat(String)} and {@link Double#parseDouble(String)}
+	 * @param text The text to check
+	 * @param start The index the number starts at, it runs to the end of the text
+	 * @param signed True to allow a leading sign, and a fraction without digits before the '.'
+	 */
+	static boolean isDecimal(String text, int start, boolean signed)
+	{
+		if(text == null)
+			return false;
+
+		int i = start;
+		int length = text.length();
+		if(signed && i < length && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+			++i;
+
+		int digits = 0;
+		while(i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+		{
+			++i;
+			++digits;
+		}
+
+		if(i < length && text.charAt(i) == '.')
+		{
+			++i;
+			int fraction = 0;
+			while(i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+			{
+				++i;
+				++fraction;
+			}
+
+			if(fraction == 0 || (digits == 0 && !signed))
+				return false;
+			digits += fraction;
+		}
+
+		return digits > 0 && i == length;
+	}
+
+	/**
+	 * @return True for the characters a regex \s matches
+	 */
+	static boolean isWhitespace(char c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+}
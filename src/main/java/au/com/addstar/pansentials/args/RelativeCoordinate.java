@@ -0,0 +1,66 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * A single coordinate that is either absolute ("12.5") or relative to some
+ * position ("~", "~-3")
+ */
+public final class RelativeCoordinate
+{
+	private final boolean mRelative;
+	private final double mValue;
+
+	private RelativeCoordinate(boolean relative, double value)
+	{
+		mRelative = relative;
+		mValue = value;
+	}
+
+	public static RelativeCoordinate absolute(double value)
+	{
+		return new RelativeCoordinate(false, value);
+	}
+
+	/**
+	 * @param text A decimal number, optionally prefixed with '~' to make it relative. An empty
+	 *             string or a lone '~' is the base position itself
+	 * @return The coordinate, or null if the text is not in that form
+	 */
+	public static RelativeCoordinate parse(String text)
+	{
+		if(text == null)
+			return null;
+
+		if(text.isEmpty() || text.equals("~"))
+			return new RelativeCoordinate(true, 0);
+
+		boolean relative = (text.charAt(0) == '~');
+		if(!Numbers.isDecimal(text, relative ? 1 : 0, true))
+			return null;
+
+		return new RelativeCoordinate(relative, Double.parseDouble(relative ? text.substring(1) : text));
+	}
+
+	public boolean isRelative()
+	{
+		return mRelative;
+	}
+
+	/**
+	 * @param base The position a relative coordinate is relative to
+	 * @return The absolute value of this coordinate
+	 */
+	public double resolve(double base)
+	{
+		return (mRelative ? base + mValue : mValue);
+	}
+
+	@Override
+	public String toString()
+	{
+		if(!mRelative)
+			return String.valueOf(mValue);
+		if(mValue == 0)
+			return "~";
+		return "~" + mValue;
+	}
+}
@@ -0,0 +1,35 @@
+package au.com.addstar.pansentials.args;
+
+/**
+ * Parses and formats player movement speeds, on the 0 to 10 scale used by /speed
+ */
+public final class Speeds
+{
+	public static final float MIN_SPEED = 0;
+	public static final float MAX_SPEED = 10;
+
+	private Speeds()
+	{
+	}
+
+	/**
+	 * @param text Digits optionally followed by a '.' and more digits
+	 * @return The speed, or NaN if the text is not in that form or is above {@link #MAX_SPEED}
+	 */
+	public static float parse(String text)
+	{
+		return Numbers.parseUnsignedDecimal(text, MIN_SPEED, MAX_SPEED);
+	}
+
+	/**
+	 * @return The speed as text, without a trailing ".0" for whole numbers
+	 */
+	public static String format(float speed)
+	{
+		String text = String.valueOf(speed);
+		if(text.endsWith(".0"))
+			return text.substring(0, text.length() - 2);
+
+		return text;
+	}
+}
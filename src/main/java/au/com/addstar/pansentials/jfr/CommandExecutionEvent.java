@@ -0,0 +1,74 @@
+package au.com.addstar.pansentials.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Recorded for every command executed by a module.<br/>
+ * Disabled by default, enable "au.com.addstar.pansentials.CommandExecution" in the recording settings to collect it.
+ */
+@Name("au.com.addstar.pansentials.CommandExecution")
+@Label("Command Execution")
+@Description("A command handled by a Pansentials module")
+@Category({"Pansentials", "Commands"})
+@Enabled(false)
+@StackTrace(false)
+public class CommandExecutionEvent extends Event
+{
+	private static final EventType TYPE = EventType.getEventType(CommandExecutionEvent.class);
+	
+	@Label("Module")
+	String module;
+	
+	@Label("Label")
+	String label;
+	
+	@Label("Sender Type")
+	String senderType;
+	
+	/**
+	 * Checks if any recording has this event enabled, without creating an event
+	 */
+	public static boolean isRecording()
+	{
+		return TYPE.isEnabled();
+	}
+	
+	/**
+	 * Ends the event and commits it if it passes the recording settings.
+	 * The fields are only filled in when the event will actually be written.
+	 */
+	public void complete(String module, String label, CommandSender sender)
+	{
+		end();
+		if(!shouldCommit())
+			return;
+		
+		this.module = module;
+		this.label = label;
+		this.senderType = getSenderType(sender);
+		commit();
+	}
+	
+	private static String getSenderType(CommandSender sender)
+	{
+		if(sender instanceof Player)
+			return "player";
+		if(sender instanceof ConsoleCommandSender)
+			return "console";
+		if(sender instanceof BlockCommandSender)
+			return "block";
+		
+		return sender.getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,49 @@
+package au.com.addstar.pansentials.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded around expensive operations such as safe teleport searches, bulk mob spawns
+ * and nearby entity scans.<br/>
+ * Disabled by default, enable "au.com.addstar.pansentials.HeavyOperation" in the recording settings to collect it.
+ */
+@Name("au.com.addstar.pansentials.HeavyOperation")
+@Label("Heavy Operation")
+@Description("A potentially expensive operation performed by Pansentials")
+@Category("Pansentials")
+@Enabled(false)
+public class HeavyOperationEvent extends Event
+{
+	@Label("Operation")
+	String operation;
+	
+	@Label("Detail")
+	String detail;
+	
+	@Label("Count")
+	@Description("Number of items produced or examined, meaning depends on the operation")
+	int count;
+	
+	/**
+	 * Ends the event and commits it if it passes the recording settings
+	 * @param operation Name of the operation
+	 * @param detail Free form detail such as the world or mob type, may be null
+	 * @param count Number of entities spawned, entities found, etc.
+	 */
+	public void complete(String operation, String detail, int count)
+	{
+		end();
+		if(!shouldCommit())
+			return;
+		
+		this.operation = operation;
+		this.detail = detail;
+		this.count = count;
+		commit();
+	}
+}
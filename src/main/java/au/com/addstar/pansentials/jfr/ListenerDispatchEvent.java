@@ -0,0 +1,54 @@
+package au.com.addstar.pansentials.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every event dispatched to a module event handler.<br/>
+ * Disabled by default, enable "au.com.addstar.pansentials.ListenerDispatch" in the recording settings to collect it.
+ * A threshold is recommended as some handlers run for every block or movement event.
+ */
+@Name("au.com.addstar.pansentials.ListenerDispatch")
+@Label("Listener Dispatch")
+@Description("An event handled by a Pansentials module listener")
+@Category({"Pansentials", "Listeners"})
+@Enabled(false)
+@StackTrace(false)
+public class ListenerDispatchEvent extends Event
+{
+	private static final EventType TYPE = EventType.getEventType(ListenerDispatchEvent.class);
+	
+	@Label("Module")
+	String module;
+	
+	@Label("Handler")
+	String handler;
+	
+	/**
+	 * Checks if any recording has this event enabled, without creating an event
+	 */
+	public static boolean isRecording()
+	{
+		return TYPE.isEnabled();
+	}
+	
+	/**
+	 * Ends the event and commits it if it passes the recording settings
+	 */
+	public void complete(String module, String handler)
+	{
+		end();
+		if(!shouldCommit())
+			return;
+		
+		this.module = module;
+		this.handler = handler;
+		commit();
+	}
+}
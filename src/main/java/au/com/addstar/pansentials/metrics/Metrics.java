@@ -0,0 +1,134 @@
+package au.com.addstar.pansentials.metrics;
+
+import au.com.addstar.pansentials.timings.HandlerTimings;
+import au.com.addstar.pansentials.timings.LatencyHistogram;
+import au.com.addstar.pansentials.timings.Timings;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and gauges recorded by modules for the metrics endpoint.<br/>
+ * Recording only touches {@link LongAdder} and {@link AtomicLong} values so it is cheap enough to
+ * always do, and rendering never needs to read module state or run on the main thread.
+ */
+public final class Metrics
+{
+	/**
+	 * Upper bounds, in seconds, of the buckets exported for duration histograms
+	 */
+	private static final double[] BUCKET_BOUNDS = { 0.00001, 0.0001, 0.0005, 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1 };
+	/**
+	 * The bucket bounds in plain decimal notation, as scrapers match "le" labels as text
+	 */
+	private static final String[] BUCKET_LABELS = new String[BUCKET_BOUNDS.length];
+	
+	static
+	{
+		for(int i = 0; i < BUCKET_BOUNDS.length; ++i)
+			BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKET_BOUNDS[i]).stripTrailingZeros().toPlainString();
+	}
+	
+	private static final ConcurrentHashMap<String, LongAdder> sEntitiesSpawned = new ConcurrentHashMap<>();
+	private static final AtomicLong sActiveGods = new AtomicLong();
+	private static final AtomicLong sPowertools = new AtomicLong();
+	
+	/**
+	 * Records entities spawned by a module
+	 * @param source The name of the module doing the spawning
+	 * @param count The number of entities spawned
+	 */
+	public static void recordEntitiesSpawned(String source, int count)
+	{
+		sEntitiesSpawned.computeIfAbsent(source, k -> new LongAdder()).add(count);
+	}
+	
+	public static void setActiveGods(int count)
+	{
+		sActiveGods.set(count);
+	}
+	
+	public static void setPowertools(int count)
+	{
+		sPowertools.set(count);
+	}
+	
+	/**
+	 * Renders all metrics in the Prometheus text exposition format
+	 */
+	public static String render()
+	{
+		StringBuilder out = new StringBuilder(4096);
+		
+		writeHistograms(out, "pansentials_command_duration_seconds", "Time spent executing module commands", "command", Timings.getAllCommandTimings());
+		writeHistograms(out, "pansentials_listener_duration_seconds", "Time spent in module event handlers", "handler", Timings.getAllHandlerTimings());
+		
+		writeHeader(out, "pansentials_entities_spawned_total", "Entities spawned by modules", "counter");
+		for(Entry<String, LongAdder> entry : sEntitiesSpawned.entrySet())
+			out.append("pansentials_entities_spawned_total{module=\"").append(escape(entry.getKey())).append("\"} ").append(entry.getValue().sum()).append('\n');
+		
+		writeHeader(out, "pansentials_active_gods", "Players currently in god mode", "gauge");
+		out.append("pansentials_active_gods ").append(sActiveGods.get()).append('\n');
+		
+		writeHeader(out, "pansentials_powertools", "Powertools currently bound", "gauge");
+		out.append("pansentials_powertools ").append(sPowertools.get()).append('\n');
+		
+		return out.toString();
+	}
+	
+	private static void writeHistograms(StringBuilder out, String name, String help, String label, Collection<HandlerTimings> all)
+	{
+		writeHeader(out, name, help, "histogram");
+		
+		for(HandlerTimings timings : all)
+		{
+			LatencyHistogram histogram = timings.getHistogram();
+			String labels = "module=\"" + escape(timings.getOwner()) + "\"," + label + "=\"" + escape(timings.getHandler()) + "\"";
+			
+			long[] counts = new long[BUCKET_BOUNDS.length];
+			histogram.forEachBucket((upperBound, count) ->
+			{
+				for(int i = 0; i < BUCKET_BOUNDS.length; ++i)
+				{
+					if(upperBound <= BUCKET_BOUNDS[i] * 1e9)
+					{
+						counts[i] += count;
+						break;
+					}
+				}
+			});
+			
+			// Bucket counts are read separately from the totals, so clamp to keep the output monotonic
+			long total = histogram.getCount();
+			long cumulative = 0;
+			for(int i = 0; i < BUCKET_BOUNDS.length; ++i)
+			{
+				cumulative = Math.min(cumulative + counts[i], total);
+				out.append(name).append("_bucket{").append(labels).append(",le=\"").append(BUCKET_LABELS[i]).append("\"} ").append(cumulative).append('\n');
+			}
+			out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(total).append('\n');
+			out.append(name).append("_sum{").append(labels).append("} ").append(histogram.getTotal() / (double)TimeUnit.SECONDS.toNanos(1)).append('\n');
+			out.append(name).append("_count{").append(labels).append("} ").append(total).append('\n');
+		}
+	}
+	
+	private static void writeHeader(StringBuilder out, String name, String help, String type)
+	{
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+	
+	private static String escape(String value)
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+	
+	private Metrics()
+	{
+	}
+}
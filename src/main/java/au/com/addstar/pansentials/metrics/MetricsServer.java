@@ -0,0 +1,89 @@
+package au.com.addstar.pansentials.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link Metrics#render()} on http://localhost:&lt;port&gt;/metrics.<br/>
+ * Requests are handled on a single daemon thread and never touch the server thread.
+ */
+public final class MetricsServer
+{
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	
+	private final HttpServer mServer;
+	private final ExecutorService mExecutor;
+	
+	private MetricsServer(HttpServer server, ExecutorService executor)
+	{
+		mServer = server;
+		mExecutor = executor;
+	}
+	
+	/**
+	 * Starts the endpoint, bound to the loopback address only
+	 * @param port The port to listen on
+	 * @throws IOException If the port could not be bound
+	 */
+	public static MetricsServer start(int port) throws IOException
+	{
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		ExecutorService executor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, "Pansentials Metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		server.createContext("/metrics", MetricsServer::handle);
+		server.setExecutor(executor);
+		server.start();
+		
+		return new MetricsServer(server, executor);
+	}
+	
+	private static void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			if(!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD"))
+			{
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			
+			byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			
+			if(exchange.getRequestMethod().equals("HEAD"))
+			{
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			
+			exchange.sendResponseHeaders(200, body.length);
+			try(OutputStream out = exchange.getResponseBody())
+			{
+				out.write(body);
+			}
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+	
+	public void stop()
+	{
+		mServer.stop(0);
+		mExecutor.shutdown();
+	}
+}
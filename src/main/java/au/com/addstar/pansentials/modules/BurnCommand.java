@@ -14,6 +14,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -36,7 +37,7 @@ public class BurnCommand extends CommandModule implements Listener {
         final Player player = Bukkit.getPlayer(args[0]);
 
         if (player == null) {
-            sender.sendMessage(Utilities.format(getPlugin().getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+            sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
             return true;
         }
 
@@ -45,7 +46,7 @@ public class BurnCommand extends CommandModule implements Listener {
         try {
             time = Long.parseLong(args[1]);
             if (time < 0) {
-                sender.sendMessage(Utilities.format(getPlugin().getFormatConfig(), "burn.invalid.time"));
+                sender.sendMessage(Utilities.format(sender, "burn.invalid.time"));
                 return true;
             }
 
@@ -54,7 +55,7 @@ public class BurnCommand extends CommandModule implements Listener {
             time = Utilities.parseDateDiff(args[1]);
 
             if (time == 0) {
-                sender.sendMessage(Utilities.format(getPlugin().getFormatConfig(), "burn.invalid.time"));
+                sender.sendMessage(Utilities.format(sender, "burn.invalid.time"));
                 return true;
             }
         }
@@ -69,7 +70,7 @@ public class BurnCommand extends CommandModule implements Listener {
         if (args.length >= 4) {
             message = ChatColor.GOLD + ChatColor.translateAlternateColorCodes('&', StringUtils.join(args, ' ', 3, args.length));
         } else {
-            message = Utilities.format(getPlugin().getFormatConfig(), "burn.ignited");
+            message = Utilities.format(player, "burn.ignited");
         }
 
         int tickTime = (int) (time / 50);
@@ -79,15 +80,20 @@ public class BurnCommand extends CommandModule implements Listener {
             immunePlayers.put(player, System.currentTimeMillis() + time);
 
             // Schedule task to remove the immunity
-            Bukkit.getScheduler().runTaskLater(getPlugin(), () -> immunePlayers.remove(player), tickTime);
+            getContext().runTaskLater(() -> immunePlayers.remove(player), tickTime);
         }
 
         player.setFireTicks(tickTime);
         player.sendMessage(message);
-        sender.sendMessage(Utilities.format(getPlugin().getFormatConfig(), "burn.done", "%player%:" + player.getDisplayName()));
+        sender.sendMessage(Utilities.format(sender, "burn.done", "%player%:" + player.getDisplayName()));
         return true;
     }
 
+	@Override
+	public Map<String, Integer> getStateSizes() {
+		return Collections.singletonMap("immunePlayers", immunePlayers.size());
+	}
+
 	@Override
 	public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
 		if (args.length == 1) {
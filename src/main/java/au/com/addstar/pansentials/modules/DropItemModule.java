@@ -2,6 +2,7 @@ package au.com.addstar.pansentials.modules;
 
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
+import au.com.addstar.pansentials.ModuleContext;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.command.Command;
@@ -23,19 +24,21 @@ import org.bukkit.util.Vector;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-public class DropItemModule implements Module, CommandExecutor, Listener{
+public class DropItemModule implements Module, CommandExecutor{
 	
 	private MasterPlugin plugin;
 	private List<Player> active;
     private final Map<String, Item> items = new HashMap<>();
+	private ModuleContext context;
+	private final PlacementListener placementListener = new PlacementListener();
+	private final ItemListener itemListener = new ItemListener();
 
 	@Override
 	public void onEnable() {
-		plugin.getServer().getPluginManager().registerEvents(this, plugin);
-		
 		plugin.getCommand("dropitem").setExecutor(this);
 		active = new ArrayList<>();
 		//Load from file
@@ -56,6 +59,19 @@ public class DropItemModule implements Module, CommandExecutor, Listener{
 	public void setPandoraInstance(MasterPlugin plugin) {
 		this.plugin = plugin;
 	}
+	
+	@Override
+	public void setContext(ModuleContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public Map<String, Integer> getStateSizes() {
+		Map<String, Integer> sizes = new LinkedHashMap<>();
+		sizes.put("items", items.size());
+		sizes.put("active", active.size());
+		return sizes;
+	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String cmd,
@@ -70,67 +86,79 @@ public class DropItemModule implements Module, CommandExecutor, Listener{
 				active.add((Player) sender);
 				//Message
 			}
+			context.setListenerActive(placementListener, !active.isEmpty());
 			return true;
 		}
 		return false;
 	}
 	
 	
-	@EventHandler
-	private void click(PlayerInteractEvent event){
-		if(active.contains(event.getPlayer()) && event.getAction() == Action.LEFT_CLICK_BLOCK){
-			Player ply = event.getPlayer();
-			
-			Location loc = event.getClickedBlock().getLocation();
-			loc.setX(loc.getX() + 0.5);
-			loc.setZ(loc.getZ() + 0.5);
-			loc.setY(loc.getY() + 1.2);
-			
-			event.setCancelled(true);
+	/**
+	 * Handlers only needed while a player is placing display items
+	 */
+	private class PlacementListener implements Listener {
+		@EventHandler
+		private void click(PlayerInteractEvent event){
+			if(active.contains(event.getPlayer()) && event.getAction() == Action.LEFT_CLICK_BLOCK){
+				Player ply = event.getPlayer();
 
-			if (ply.getInventory().getItemInMainHand().getType() != Material.AIR) {
-				spawnItem(ply.getInventory().getItemInMainHand(), loc);
-				//Message
-			}
-			else{
-				if(items.containsKey(getLocationString(loc)))
-					removeItem(getLocationString(loc));
-				//Message
+				Location loc = event.getClickedBlock().getLocation();
+				loc.setX(loc.getX() + 0.5);
+				loc.setZ(loc.getZ() + 0.5);
+				loc.setY(loc.getY() + 1.2);
+
+				event.setCancelled(true);
+
+				if (ply.getInventory().getItemInMainHand().getType() != Material.AIR) {
+					spawnItem(ply.getInventory().getItemInMainHand(), loc);
+					//Message
+				}
+				else{
+					if(items.containsKey(getLocationString(loc)))
+						removeItem(getLocationString(loc));
+					//Message
+				}
 			}
 		}
-	}
-	
-	@EventHandler
-	private void despawn(ItemDespawnEvent event){
-		if(event.getEntity().hasMetadata("permitem")){
-			event.setCancelled(true);
+
+		@EventHandler
+		private void disconnect(PlayerQuitEvent event){
+			if(active.contains(event.getPlayer()))
+				active.remove(event.getPlayer());
+			context.setListenerActive(placementListener, !active.isEmpty());
 		}
 	}
 	
-	@EventHandler
-    private void pickup(EntityPickupItemEvent event) {
-		if(event.getItem().hasMetadata("permitem")){
-			event.setCancelled(true);
+	/**
+	 * Handlers protecting display items, only registered while any exist
+	 */
+	private class ItemListener implements Listener {
+		@EventHandler
+		private void despawn(ItemDespawnEvent event){
+			if(event.getEntity().hasMetadata("permitem")){
+				event.setCancelled(true);
+			}
+		}
+
+		@EventHandler
+	    private void pickup(EntityPickupItemEvent event) {
+			if(event.getItem().hasMetadata("permitem")){
+				event.setCancelled(true);
+			}
+		}
+
+		@EventHandler
+		private void death(EntityDamageEvent event){
+			if(event.getEntity().hasMetadata("permitem"))
+				event.setCancelled(true);
 		}
-	}
-	
-	@EventHandler
-	private void death(EntityDamageEvent event){
-		if(event.getEntity().hasMetadata("permitem"))
-			event.setCancelled(true);
-	}
-	
-	@EventHandler
-	private void disconnect(PlayerQuitEvent event){
-		if(active.contains(event.getPlayer()))
-			active.remove(event.getPlayer());
 	}
 	
 	private void removeItem(String loc){
 		Item item = items.get(loc);
 		item.remove();
 		items.remove(loc);
-		
+		context.setListenerActive(itemListener, !items.isEmpty());
 	}
 	
 	private String getLocationString(Location loc){
@@ -144,5 +172,6 @@ public class DropItemModule implements Module, CommandExecutor, Listener{
 		if(items.containsKey(getLocationString(loc)))
 			removeItem(getLocationString(loc));
 		items.put(getLocationString(loc), it);
+		context.setListenerActive(itemListener, true);
 	}
 }
@@ -4,6 +4,7 @@ import au.com.addstar.monolith.lookup.Lookup;
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
 import au.com.addstar.pansentials.Utilities;
+import au.com.addstar.pansentials.args.Numbers;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -46,15 +47,13 @@ public class EnchantModule implements Module, CommandExecutor{
 					if(args.length == 3 && args[2].equalsIgnoreCase("unsafe")){
 						unsafe = true;
 					}
-					int level = 1;
-					if(args[1].matches("[0-9]+"))
-						level = Integer.valueOf(args[1]);
-					else{
-						player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.invalidValue", "%value%:" + args[1]));
+					int level = Numbers.parseUnsignedInt(args[1]);
+					if(level < 0){
+						player.sendMessage(Utilities.format(player, "enchant.invalidValue", "%value%:" + args[1]));
 						return true;
 					}
 					if ((unsafe) && (!player.hasPermission("pansentials.enchant.unsafe"))) {
-						player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.illegalEnchant",
+						player.sendMessage(Utilities.format(player, "enchant.illegalEnchant",
 								"%enchant%:" + ench.getName().toLowerCase(),
 								"%level%:" + level,
                                 "%item%:" + item.getType().toString().toLowerCase()));
@@ -64,13 +63,13 @@ public class EnchantModule implements Module, CommandExecutor{
 						if(!unsafe){
 							try{
 								player.getInventory().getItemInMainHand().addEnchantment(ench, level);
-								player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.success",
+								player.sendMessage(Utilities.format(player, "enchant.success",
                                         "%item%:" + item.getType().toString().toLowerCase(),
 										"%enchant%:" + ench.getName().toLowerCase(),
 										"%level%:" + level));
 							}
 							catch (IllegalArgumentException e){
-								player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.illegalEnchant", 
+								player.sendMessage(Utilities.format(player, "enchant.illegalEnchant", 
 										"%enchant%:" + ench.getName().toLowerCase(), 
 										"%level%:" + level,
                                         "%item%:" + item.getType().toString().toLowerCase()));
@@ -78,7 +77,7 @@ public class EnchantModule implements Module, CommandExecutor{
 						}
 						else{
 							player.getInventory().getItemInMainHand().addUnsafeEnchantment(ench, level);
-							player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.success",
+							player.sendMessage(Utilities.format(player, "enchant.success",
                                     "%item%:" + item.getType().toString().toLowerCase(),
 									"%enchant%:" + ench.getName().toLowerCase(),
 									"%level%:" + level));
@@ -86,17 +85,17 @@ public class EnchantModule implements Module, CommandExecutor{
 					}
 					else{
 						player.getInventory().getItemInMainHand().removeEnchantment(ench);
-						player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.removed", 
+						player.sendMessage(Utilities.format(player, "enchant.removed", 
 								"%enchant%:" + ench.getName().toLowerCase(),
                                 "%item%:" + item.getType().toString().toLowerCase()));
 					}
 				}
 				else{
-					player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.noItem"));
+					player.sendMessage(Utilities.format(player, "enchant.noItem"));
 				}
 			}
 			else{
-				player.sendMessage(Utilities.format(plugin.getFormatConfig(), "enchant.invalidEnchant", "%name%:" + args[0]));
+				player.sendMessage(Utilities.format(player, "enchant.invalidEnchant", "%name%:" + args[0]));
 			}
 			
 			return true;
@@ -3,6 +3,7 @@ package au.com.addstar.pansentials.modules;
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
 import au.com.addstar.pansentials.Utilities;
+import au.com.addstar.pansentials.args.ExpAmount;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -38,41 +39,36 @@ public class ExpModule implements Module, CommandExecutor, TabCompleter{
 			String[] args) {
 		if(args.length == 0 && sender instanceof Player){
 			Player ply = (Player) sender;
-			sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.info", "%player%:" + ply.getDisplayName(), 
+			sender.sendMessage(Utilities.format(sender, "exp.info", "%player%:" + ply.getDisplayName(), 
 					"%exp%:" + ply.getTotalExperience(), "%level%:" + ply.getLevel(), "%amount%:" + ply.getExpToLevel()));
 		}
 		else if(args.length == 1){
 			List<Player> plys = Bukkit.getServer().matchPlayer(args[0]);
 			if(!plys.isEmpty()){
 				Player ply = plys.get(0);
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.info", "%player%:" + ply.getDisplayName(), 
+				sender.sendMessage(Utilities.format(sender, "exp.info", "%player%:" + ply.getDisplayName(), 
 						"%exp%:" + ply.getTotalExperience(), "%level%:" + ply.getLevel(), "%amount%:" + ply.getExpToLevel()));
 			}
 			else{
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+				sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 			}
 		}
 		else if(args.length == 3 && (args[1].equalsIgnoreCase("set") || args[1].equalsIgnoreCase("add"))){
 			List<Player> plys = Bukkit.getServer().matchPlayer(args[0]);
 			if(!plys.isEmpty()){
 				Player ply = plys.get(0);
-				int level = -1;
-				int exp = -1;
-				if(args[2].matches("L[0-9]+")){
-					level = Integer.valueOf(args[2].replace("L", ""));
-				}
-				else if(args[2].matches("[0-9]+")){
-					exp = Integer.valueOf(args[2]);
-				}
-				else{
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.invalidExp", "%amount%:" + args[2]));
+				ExpAmount amount = ExpAmount.parse(args[2]);
+				if(amount == null){
+					sender.sendMessage(Utilities.format(sender, "exp.invalidExp", "%amount%:" + args[2]));
 					return true;
 				}
+				int level = amount.isLevels() ? amount.getAmount() : -1;
+				int exp = amount.isLevels() ? -1 : amount.getAmount();
 				
 				if(args[1].equalsIgnoreCase("set")){
 					if(level != -1){
 						ply.setLevel(level);
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.setLevel", "%player%:" + ply.getDisplayName(), 
+						sender.sendMessage(Utilities.format(sender, "exp.setLevel", "%player%:" + ply.getDisplayName(), 
 								"%amount%:" + level));
 					}
 					else{
@@ -80,25 +76,25 @@ public class ExpModule implements Module, CommandExecutor, TabCompleter{
 						ply.setExp(0);
 						ply.setTotalExperience(0);
 						ply.giveExp(exp);
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.setExp", "%player%:" + ply.getDisplayName(), 
+						sender.sendMessage(Utilities.format(sender, "exp.setExp", "%player%:" + ply.getDisplayName(), 
 								"%amount%:" + exp, "%level%:" + ply.getLevel()));
 					}
 				}
 				else{
 					if(level != -1){
 						ply.setLevel(ply.getLevel() + level);
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.addLevel", "%player%:" + ply.getDisplayName(), 
+						sender.sendMessage(Utilities.format(sender, "exp.addLevel", "%player%:" + ply.getDisplayName(), 
 								"%amount%:" + level, "%level%:" + ply.getLevel()));
 					}
 					else{
 						ply.giveExp(exp);
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "exp.addExp", "%player%:" + ply.getDisplayName(), 
+						sender.sendMessage(Utilities.format(sender, "exp.addExp", "%player%:" + ply.getDisplayName(), 
 								"%amount%:" + exp, "%level%:" + ply.getLevel(), "%exp%:" + ply.getTotalExperience()));
 					}
 				}
 			}
 			else{
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+				sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 			}
 		}
 		return true;
@@ -44,11 +44,11 @@ public class FlyModule implements Module, CommandExecutor, Listener{
 				Player ply = (Player) sender;
 				if(ply.getAllowFlight()){
 					ply.setAllowFlight(false);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.selfDisable"));
+					ply.sendMessage(Utilities.format(ply, "fly.selfDisable"));
 				}
 				else{
 					ply.setAllowFlight(true);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.selfEnable"));
+					ply.sendMessage(Utilities.format(ply, "fly.selfEnable"));
 				}
 			}
 			else if(args.length == 1 && sender.hasPermission("pansentials.fly.other")){
@@ -57,13 +57,13 @@ public class FlyModule implements Module, CommandExecutor, Listener{
 					Player ply = players.get(0);
 					if(ply.getAllowFlight()){
 						ply.setAllowFlight(false);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.selfDisable"));
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.other.execDisable", "%player%:" + ply.getName()));
+						ply.sendMessage(Utilities.format(ply, "fly.selfDisable"));
+						sender.sendMessage(Utilities.format(sender, "fly.other.execDisable", "%player%:" + ply.getName()));
 					}
 					else{
 						ply.setAllowFlight(true);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.selfEnable"));
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "fly.other.execEnable", "%player%:" + ply.getName()));
+						ply.sendMessage(Utilities.format(ply, "fly.selfEnable"));
+						sender.sendMessage(Utilities.format(sender, "fly.other.execEnable", "%player%:" + ply.getName()));
 					}
 				}
 			}
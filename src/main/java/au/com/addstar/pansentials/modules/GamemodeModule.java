@@ -47,10 +47,10 @@ public class GamemodeModule implements Module, CommandExecutor{
 				
 				if(gm != null && sender.hasPermission("pansentials.gamemode." + gm.toString().toLowerCase())){
 					((Player) sender).setGameMode(gm);
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.changed", "%gamemode%:" + gm.toString().toLowerCase()));
+					sender.sendMessage(Utilities.format(sender, "gamemode.changed", "%gamemode%:" + gm.toString().toLowerCase()));
 				}
 				else{
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					sender.sendMessage(Utilities.format(sender, "noPermission"));
 				}
 			}
 			else if(args.length == 1 && (cmd.equalsIgnoreCase("gms") || cmd.equalsIgnoreCase("gma") || 
@@ -71,7 +71,7 @@ public class GamemodeModule implements Module, CommandExecutor{
 					setGameMode(sender, args, ply, gm);
 				}
 				else{
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+					sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 				}
 			}
 			else if(args.length == 1 && sender instanceof Player){
@@ -80,13 +80,13 @@ public class GamemodeModule implements Module, CommandExecutor{
 				
 				if(gm != null && ply.hasPermission("pansentials.gamemode." + gm.toString().toLowerCase())){
 					ply.setGameMode(gm);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.changed", "%gamemode%:" + gm.toString().toLowerCase()));
+					ply.sendMessage(Utilities.format(ply, "gamemode.changed", "%gamemode%:" + gm.toString().toLowerCase()));
 				}
 				else if(gm == null){
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.noGamemode", "%name%:" + args[0]));
+					ply.sendMessage(Utilities.format(ply, "gamemode.noGamemode", "%name%:" + args[0]));
 				}
 				else{
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					ply.sendMessage(Utilities.format(ply, "noPermission"));
 				}
 			}
 			else if(args.length == 2){
@@ -96,7 +96,7 @@ public class GamemodeModule implements Module, CommandExecutor{
 					GameMode gm = getGamemode(args[0]);
 					setGameMode(sender, args, ply, gm);
 				} else {
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[1]));
+					sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[1]));
 				}
 			}
 			return true;
@@ -107,14 +107,14 @@ public class GamemodeModule implements Module, CommandExecutor{
 	private void setGameMode(CommandSender sender, String[] args, Player ply, GameMode gm) {
 		if (gm != null && sender.hasPermission("pansentials.gamemode." + gm.toString().toLowerCase() + ".other")) {
 			ply.setGameMode(gm);
-			ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.changed",
+			ply.sendMessage(Utilities.format(ply, "gamemode.changed",
 					"%gamemode%:" + gm.toString().toLowerCase()));
-			sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.changedOther", "%player%:" + ply.getName(),
+			sender.sendMessage(Utilities.format(sender, "gamemode.changedOther", "%player%:" + ply.getName(),
 					"%gamemode%:" + gm.toString().toLowerCase()));
 		} else if (gm == null) {
-			sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "gamemode.noGamemode", "%name%:" + args[0]));
+			sender.sendMessage(Utilities.format(sender, "gamemode.noGamemode", "%name%:" + args[0]));
 		} else {
-			sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+			sender.sendMessage(Utilities.format(sender, "noPermission"));
 		}
 	}
 
@@ -2,47 +2,61 @@ package au.com.addstar.pansentials.modules;
 
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
+import au.com.addstar.pansentials.ModuleContext;
 import au.com.addstar.pansentials.Utilities;
+import au.com.addstar.pansentials.metrics.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityTargetEvent;
 import org.bukkit.event.entity.FoodLevelChangeEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public class GodModule implements Module, CommandExecutor, Listener{
+public class GodModule implements Module, CommandExecutor{
 	
 	private MasterPlugin plugin;
 	private Set<Player> gods;
+	private ModuleContext context;
+	private final GodListener listener = new GodListener();
 
 	@Override
 	public void onEnable() {
 		plugin.getCommand("god").setExecutor(this);
 		gods = new HashSet<>();
-		plugin.getServer().getPluginManager().registerEvents(this, plugin);
 	}
 
 	@Override
 	public void onDisable() {
 		plugin.getCommand("god").setExecutor(null);
 		gods = null;
-		HandlerList.unregisterAll(this);
+		Metrics.setActiveGods(0);
 	}
 
 	@Override
 	public void setPandoraInstance(MasterPlugin plugin) {
 		this.plugin = plugin;
 	}
+	
+	@Override
+	public void setContext(ModuleContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public Map<String, Integer> getStateSizes() {
+		return Collections.singletonMap("gods", gods.size());
+	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String cmd,
@@ -53,11 +67,13 @@ public class GodModule implements Module, CommandExecutor, Listener{
 				
 				if(gods.contains(ply) || cmd.equalsIgnoreCase("ungod")){
 					gods.remove(ply);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.selfUngod"));
+					godsChanged();
+					ply.sendMessage(Utilities.format(ply, "god.selfUngod"));
 				}
 				else{
 					gods.add(ply);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.selfGod"));
+					godsChanged();
+					ply.sendMessage(Utilities.format(ply, "god.selfGod"));
 				}
 			}
 			else if(args.length == 1){
@@ -67,21 +83,23 @@ public class GodModule implements Module, CommandExecutor, Listener{
 						Player ply = plys.get(0);
 						if(gods.contains(ply) || cmd.equalsIgnoreCase("ungod")){
 							gods.remove(ply);
-							ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.selfUngod"));
-							sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.otherUngod", "%player%:" + ply.getName()));
+							godsChanged();
+							ply.sendMessage(Utilities.format(ply, "god.selfUngod"));
+							sender.sendMessage(Utilities.format(sender, "god.otherUngod", "%player%:" + ply.getName()));
 						}
 						else{
 							gods.add(ply);
-							ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.selfGod"));
-							sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "god.otherGod", "%player%:" + ply.getName()));
+							godsChanged();
+							ply.sendMessage(Utilities.format(ply, "god.selfGod"));
+							sender.sendMessage(Utilities.format(sender, "god.otherGod", "%player%:" + ply.getName()));
 						}
 					}
 					else{
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+						sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 					}
 				}
 				else{
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					sender.sendMessage(Utilities.format(sender, "noPermission"));
 				}
 			}
 			return true;
@@ -89,38 +107,49 @@ public class GodModule implements Module, CommandExecutor, Listener{
 		return false;
 	}
 	
-	@EventHandler(ignoreCancelled = true)
-	private void onDamage(EntityDamageEvent event){
-		if(event.getEntity() instanceof Player){
-			Player ply = (Player)event.getEntity();
-			if(gods.contains(ply)){
-				event.setCancelled(true);
-			}
-		}
+	private void godsChanged() {
+		Metrics.setActiveGods(gods.size());
+		context.setListenerActive(listener, !gods.isEmpty());
 	}
 	
-	@EventHandler
-	private void onDisconnect(PlayerQuitEvent event){
-		if(gods.contains(event.getPlayer())){
-			gods.remove(event.getPlayer());
+	/**
+	 * Handlers for frequent events, only registered while someone is in god mode
+	 */
+	private class GodListener implements Listener {
+		@EventHandler(ignoreCancelled = true)
+		private void onDamage(EntityDamageEvent event){
+			if(event.getEntity() instanceof Player){
+				Player ply = (Player)event.getEntity();
+				if(gods.contains(ply)){
+					event.setCancelled(true);
+				}
+			}
 		}
-	}
-	
-	@EventHandler
-	private void onHunger(FoodLevelChangeEvent event){
-		Player ply = (Player) event.getEntity();
-		if(gods.contains(ply)){
-			event.setCancelled(true);
+		
+		@EventHandler
+		private void onDisconnect(PlayerQuitEvent event){
+			if(gods.contains(event.getPlayer())){
+				gods.remove(event.getPlayer());
+				godsChanged();
+			}
 		}
-	}
-	
-	@EventHandler
-	private void onTarget(EntityTargetEvent event){
-		if(event.getTarget() instanceof Player){
-			Player ply = (Player) event.getTarget();
+		
+		@EventHandler
+		private void onHunger(FoodLevelChangeEvent event){
+			Player ply = (Player) event.getEntity();
 			if(gods.contains(ply)){
 				event.setCancelled(true);
 			}
 		}
+		
+		@EventHandler
+		private void onTarget(EntityTargetEvent event){
+			if(event.getTarget() instanceof Player){
+				Player ply = (Player) event.getTarget();
+				if(gods.contains(ply)){
+					event.setCancelled(true);
+				}
+			}
+		}
 	}
 }
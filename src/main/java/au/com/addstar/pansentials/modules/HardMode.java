@@ -2,6 +2,8 @@ package au.com.addstar.pansentials.modules;
 
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
+import au.com.addstar.pansentials.ModuleContext;
+import au.com.addstar.pansentials.metrics.Metrics;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -46,6 +48,7 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
   private Set<UUID> enabledPlayers = new HashSet<>();
   private Set<World> enabledWorlds = new HashSet<>();
   private MasterPlugin plugin;
+  private ModuleContext context;
   private BukkitTask mainTask = null;
   private List<BukkitTask> tasks = new ArrayList<>();
 
@@ -80,6 +83,11 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
     this.plugin = plugin;
   }
 
+  @Override
+  public void setContext(ModuleContext context) {
+    this.context = context;
+  }
+
   @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
   public void onPlayerSwitchWorld(PlayerChangedWorldEvent event) {
     if (enabledWorlds.contains(event.getPlayer().getLocation().getWorld())) {
@@ -177,7 +185,7 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
   }
 
   private BukkitTask createMainTask() {
-    return Bukkit.getScheduler().runTaskTimer(plugin, () -> enabledPlayers.
+    return context.runTaskTimer(() -> enabledPlayers.
         forEach(uuid -> createEvents(Bukkit.getPlayer(uuid))), 200, 100);
   }
 
@@ -246,9 +254,11 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
           ((Creeper) e).setPowered(true);
           ((Creeper) e).setTarget(p);
           ((Creeper) e).setExplosionRadius(10);
+          Metrics.recordEntitiesSpawned("hardmode", 1);
           return;
         case 3:
           Zombie z = (Zombie) loc.getWorld().spawnEntity(loc, EntityType.ZOMBIE_VILLAGER);
+          Metrics.recordEntitiesSpawned("hardmode", 1);
           z.setCustomName(ChatColor.RED + "Zombie King" + ChatColor.RESET);
           z.setTarget(p);
           z.addPotionEffect(new PotionEffect(PotionEffectType.ABSORPTION, 300, 3, true, true, true));
@@ -270,7 +280,7 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
           if (health != null) {
             health.setBaseValue(health.getBaseValue() * 3);
           }
-          BukkitTask task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+          BukkitTask task = context.runTaskTimer(() -> {
             if (z.isDead())
               return;
             Firework firework = (Firework) z.getLocation().getWorld().spawnEntity(z.getLocation(), EntityType.FIREWORK);
@@ -285,6 +295,7 @@ public class HardMode implements Module, Listener, CommandExecutor, TabCompleter
         case 4:
           Mob vex = (Monster) loc.getWorld().spawnEntity(loc, EntityType.VEX);
           vex.setTarget(p);
+          Metrics.recordEntitiesSpawned("hardmode", 1);
           return;
       }
     }
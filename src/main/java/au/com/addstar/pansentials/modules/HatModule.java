@@ -37,7 +37,7 @@ public class HatModule implements Module, CommandExecutor{
 
 			ply.getInventory().setHelmet(ply.getInventory().getItemInMainHand());
 			ply.getInventory().setItemInMainHand(hat);
-			ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "hat"));
+			ply.sendMessage(Utilities.format(ply, "hat"));
 		}
 		return true;
 	}
@@ -52,7 +52,7 @@ public class HealModule implements Module, CommandExecutor{
 			if (args.length == 0) {
 				if (sender instanceof Player) {
 					heal((Player)sender);
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "heal.self"));
+					sender.sendMessage(Utilities.format(sender, "heal.self"));
 				}
 			} else {
 				if (sender.hasPermission("pansentials.heal.other")) {
@@ -60,13 +60,13 @@ public class HealModule implements Module, CommandExecutor{
 					Player target = Iterables.getFirst(players, null);
 					if (target != null) {
 						heal(target);
-						target.sendMessage(Utilities.format(plugin.getFormatConfig(), "heal.self"));
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "heal.other", "%player%:" + target.getDisplayName()));
+						target.sendMessage(Utilities.format(target, "heal.self"));
+						sender.sendMessage(Utilities.format(sender, "heal.other", "%player%:" + target.getDisplayName()));
 					} else {
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+						sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 					}
 				} else {
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					sender.sendMessage(Utilities.format(sender, "noPermission"));
 				}
 			}
 		} else if(command.getName().equalsIgnoreCase("feed")) {
@@ -75,7 +75,7 @@ public class HealModule implements Module, CommandExecutor{
 					Player ply = (Player) sender;
 					ply.setFoodLevel(20);
 					ply.setSaturation(20f);
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "feed.self"));
+					ply.sendMessage(Utilities.format(ply, "feed.self"));
 				}
 			} else {
 				if (sender.hasPermission("pansentials.feed.other")) {
@@ -84,13 +84,13 @@ public class HealModule implements Module, CommandExecutor{
 					if (target != null) {
 						target.setFoodLevel(20);
 						target.setSaturation(20f);
-						target.sendMessage(Utilities.format(plugin.getFormatConfig(), "feed.self"));
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "feed.other", "%player%:" + target.getDisplayName()));
+						target.sendMessage(Utilities.format(target, "feed.self"));
+						sender.sendMessage(Utilities.format(sender, "feed.other", "%player%:" + target.getDisplayName()));
 					} else {
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+						sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 					}
 				} else {
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					sender.sendMessage(Utilities.format(sender, "noPermission"));
 				}
 			}
 		}
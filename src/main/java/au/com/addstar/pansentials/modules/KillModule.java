@@ -20,13 +20,17 @@ import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.inventory.meta.FireworkMeta;
 import org.bukkit.util.Vector;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 public class KillModule extends CommandModule implements Listener
 {
 	private final Map<Player, String> messages;
+	private volatile Map<KillEffect, List<String>> deathMessages = Collections.emptyMap();
 	
 	public KillModule()
 	{
@@ -35,6 +39,46 @@ public class KillModule extends CommandModule implements Listener
 		messages = Maps.newHashMap();
 	}
 	
+	@Override
+	public void onPrepare()
+	{
+		deathMessages = loadDeathMessages();
+	}
+	
+	@Override
+	public void onSettingsReload()
+	{
+		deathMessages = loadDeathMessages();
+	}
+	
+	/**
+	 * Reads the colour translated death messages of every effect from format.yml. Effects
+	 * without their own messages use those of the default effect.
+	 */
+	private Map<KillEffect, List<String>> loadDeathMessages()
+	{
+		FileConfiguration config = getPlugin().getFormatConfig();
+		Map<KillEffect, List<String>> loaded = new EnumMap<>(KillEffect.class);
+		
+		for (KillEffect effect : KillEffect.values())
+		{
+			String path = "kill." + effect.name().toLowerCase() + ".msg";
+			if (!config.contains(path))
+				path = "kill.default.msg";
+			
+			List<String> options = new ArrayList<>();
+			if (config.isList(path))
+				options.addAll(config.getStringList(path));
+			else if (config.getString(path) != null)
+				options.add(config.getString(path));
+			
+			options.replaceAll(option -> ChatColor.translateAlternateColorCodes('&', option));
+			loaded.put(effect, Collections.unmodifiableList(options));
+		}
+		
+		return loaded;
+	}
+	
 	@Override
 	public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args)
 	{
@@ -79,11 +123,17 @@ public class KillModule extends CommandModule implements Listener
 		
 		killPlayer(target, effect, deathMessage);
 		
-		sender.sendMessage(Utilities.format(getPlugin().getFormatConfig(), "kill." + effect.name().toLowerCase() + ".done", "%player%:" + target.getDisplayName()));
+		sender.sendMessage(Utilities.format(sender, "kill." + effect.name().toLowerCase() + ".done", "%player%:" + target.getDisplayName()));
 		
 		return true;
 	}
 
+	@Override
+	public Map<String, Integer> getStateSizes()
+	{
+		return Collections.singletonMap("messages", messages.size());
+	}
+
 	@Override
 	public List<String> onTabComplete(CommandSender sender, Command cmd, String label, String[] args)
 	{
@@ -100,25 +150,11 @@ public class KillModule extends CommandModule implements Listener
 		// Give appropriate message if none is specified
 		if (message == null)
 		{
-			String path = "kill." + effect.name().toLowerCase() + ".msg";
-			FileConfiguration config = getPlugin().getFormatConfig();
-			
-			if (!config.contains(path))
-				path = "kill.default.msg";
-			
 			// Pick one of the messages
-			if (config.isList(path))
-			{
-				List<String> messages = config.getStringList(path);
-				if (!messages.isEmpty())
-					message = messages.get(RandomUtils.nextInt(0, messages.size()));
-			}
-			else
-				message = config.getString(path);
-
-			if (message != null)
+			List<String> options = deathMessages.get(effect);
+			if (options != null && !options.isEmpty())
 			{
-				message = ChatColor.translateAlternateColorCodes('&', message);
+				message = options.get(RandomUtils.nextInt(0, options.size()));
 				message = message.replace("%player%", ChatColor.stripColor(target.getDisplayName()));
 			}
 		}
@@ -175,7 +211,7 @@ public class KillModule extends CommandModule implements Listener
 		
 		target.setVelocity(new Vector(0, 2, 0));
 
-		Bukkit.getScheduler().runTaskLater(getPlugin(), () -> {
+		getContext().runTaskLater(() -> {
 			Location loc = target.getLocation();
 			final Firework firework = loc.getWorld().spawn(loc, Firework.class);
 
@@ -189,7 +225,7 @@ public class KillModule extends CommandModule implements Listener
 			firework.setFireworkMeta(meta);
 
 			// Fireworks cannot be detonated on the same tick
-			Bukkit.getScheduler().runTaskLater(getPlugin(), () -> {
+			getContext().runTaskLater(() -> {
 				firework.detonate();
 
 				// Kill them
@@ -206,7 +242,7 @@ public class KillModule extends CommandModule implements Listener
 		messages.put(target, message);
 		
 		// Just in case they dont die from fire damage
-		Bukkit.getScheduler().runTaskLater(getPlugin(), () -> {
+		getContext().runTaskLater(() -> {
 			if (messages.containsKey(target)) {
 				// Kill them
 				kill(target, message);
@@ -1,8 +1,11 @@
 package au.com.addstar.pansentials.modules;
 
+import au.com.addstar.pansentials.AutoConfig;
+import au.com.addstar.pansentials.ConfigField;
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
 import au.com.addstar.pansentials.Utilities;
+import au.com.addstar.pansentials.jfr.HeavyOperationEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -36,6 +39,8 @@ public class NearModule implements Module, CommandExecutor {
 
     private Class<?>[] testClasses;
 
+    private volatile Settings settings;
+
     /**
      *
      * @param sender the CommandSender
@@ -48,7 +53,7 @@ public class NearModule implements Module, CommandExecutor {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String cmd, String[] args) {
         Map<Entity, Double> filteredEntities = new LinkedHashMap<>();
-        radius = plugin.getConfig().getDouble("near.default-radius", 50);
+        radius = settings.defaultRadius;
         int arglength = args.length;
         String entityType = "Unknown";
         verbose = false;
@@ -142,7 +147,7 @@ public class NearModule implements Module, CommandExecutor {
                 return printMap(filteredEntities, sender, entityType,totalEntities.size(), verbose);
 
             } else {
-                sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "near.console.help"));
+                sender.sendMessage(Utilities.format(sender, "near.console.help"));
                 return false;
             }
         } else {
@@ -158,7 +163,7 @@ public class NearModule implements Module, CommandExecutor {
                         }
                     }
                     if (!s.hasPermission("Pansentials.near.other")) {
-                        sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+                        sender.sendMessage(Utilities.format(sender, "noPermission"));
                         return true;
                     }
                     target = plugin.getServer().getPlayer(args[0]);
@@ -167,7 +172,7 @@ public class NearModule implements Module, CommandExecutor {
                             radius = Double.parseDouble(args[0]);
                         } catch (NumberFormatException exception) {
                             //not a Double
-                            sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+                            sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
                             sender.sendMessage("The value for radius could not be determined");
                             sender.sendMessage(args[0] + " is not valid for radius or Player name");
                             return false;
@@ -198,7 +203,7 @@ public class NearModule implements Module, CommandExecutor {
                         target = s;
                     }
                     if (target != s && !s.canSee(target)) {
-                        sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+                        sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
                         return true;
                     }
                     return doPlayerNear((Player)sender, entityType, target, radius, verbose);
@@ -240,7 +245,7 @@ public class NearModule implements Module, CommandExecutor {
         if(!sender.hasPermission("pansentials.near.verbose")) {
             verbose = false;
             if (v) {
-                sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission") + "Cannot use -verbose");
+                sender.sendMessage(Utilities.format(sender, "noPermission") + "Cannot use -verbose");
             }
         } else {
             verbose = v;
@@ -387,6 +392,8 @@ public class NearModule implements Module, CommandExecutor {
         radius = rad;
         double maxRadius = 78;
         radius = (radius > maxRadius) ? maxRadius : radius;
+        HeavyOperationEvent event = new HeavyOperationEvent();
+        event.begin();
         Collection<Entity> entities = location.getWorld().getNearbyEntities(location, radius, radius, radius);
         Map<Entity, Double> results = new HashMap<>();
         for (Entity ent : entities) {
@@ -395,6 +402,7 @@ public class NearModule implements Module, CommandExecutor {
                 results.put(ent, distance);
             }
         }
+        event.complete("near", location.getWorld().getName(), results.size());
         return results;
     }
 
@@ -405,7 +413,20 @@ public class NearModule implements Module, CommandExecutor {
         plugin.getCommand("animals").setExecutor(this);
         plugin.getCommand("monsters").setExecutor(this);
         plugin.getCommand("npcs").setExecutor(this);
-        plugin.getConfig().addDefault("near.default-radius", 10);
+    }
+
+    @Override
+    public void onPrepare() {
+        settings = loadSettings();
+    }
+
+    @Override
+    public void onSettingsReload() {
+        settings = loadSettings();
+    }
+
+    private Settings loadSettings() {
+        return new Settings(plugin.loadSettings("near", SettingsConfig::new));
     }
 
     @Override
@@ -420,4 +441,23 @@ public class NearModule implements Module, CommandExecutor {
     public void setPandoraInstance(MasterPlugin plugin) {
         this.plugin = plugin;
     }
+
+    /**
+     * An immutable copy of the near section of config.yml, replaced as a whole on reload
+     */
+    private static final class Settings {
+        final double defaultRadius;
+
+        Settings(SettingsConfig config) {
+            defaultRadius = config.defaultRadius;
+        }
+    }
+
+    /**
+     * The near section of config.yml as loaded. Only read while building {@link Settings}
+     */
+    public static class SettingsConfig extends AutoConfig {
+        @ConfigField(name = "default-radius")
+        double defaultRadius = 50;
+    }
 }
@@ -2,6 +2,9 @@ package au.com.addstar.pansentials.modules;
 
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
+import au.com.addstar.pansentials.ModuleContext;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.milkbowl.vault.chat.Chat;
 import org.bukkit.Bukkit;
@@ -10,6 +13,10 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.metadata.MetadataValue;
 import org.bukkit.plugin.RegisteredServiceProvider;
 
@@ -19,22 +26,36 @@ public class PlayerListModule implements Module, CommandExecutor {
 
 	private MasterPlugin plugin;
 	private static Chat chat;
+	private ModuleContext context;
 
 	private static final MiniMessage mm = MiniMessage.miniMessage();
+	private static final Component separator = mm.deserialize("<white>, </white>");
+
+	/**
+	 * Parsed names by player, reused until the display name or suffix they were parsed from changes
+	 */
+	private final Map<UUID, PlayerInfo> names = new HashMap<>();
+	private final CacheListener listener = new CacheListener();
 
 	private static class PlayerInfo {
 		private final String displayName;
 		private final String suffix;
+		private final Component component;
 
 		public PlayerInfo(String displayName, String suffix) {
 			this.displayName = displayName;
 			this.suffix = suffix;
+			this.component = mm.deserialize(fullName());
 		}
 
 		public String fullName() {
 			String suffix = this.suffix != null ? this.suffix : "";
 			return suffix + this.displayName;  // Raw minimessage string
 		}
+
+		public boolean matches(String displayName, String suffix) {
+			return this.displayName.equals(displayName) && Objects.equals(this.suffix, suffix);
+		}
 	}
 
 	private static void setupVault() {
@@ -53,6 +74,7 @@ public class PlayerListModule implements Module, CommandExecutor {
 	@Override
 	public void onDisable() {
 		plugin.getCommand("mvw").setExecutor(null);
+		names.clear();
 	}
 
 	@Override
@@ -60,6 +82,32 @@ public class PlayerListModule implements Module, CommandExecutor {
 		this.plugin = plugin;
 	}
 
+	@Override
+	public void setContext(ModuleContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public Map<String, Integer> getStateSizes() {
+		return Collections.singletonMap("names", names.size());
+	}
+
+	/**
+	 * Gets the parsed name of a player, parsing it again only if it has changed since it was cached
+	 */
+	private PlayerInfo getInfo(Player player) {
+		String displayName = player.getDisplayName();
+		String suffix = (chat != null) ? chat.getPlayerSuffix(player) : "";
+
+		PlayerInfo info = names.get(player.getUniqueId());
+		if (info == null || !info.matches(displayName, suffix)) {
+			info = new PlayerInfo(displayName, suffix);
+			names.put(player.getUniqueId(), info);
+			context.setListenerActive(listener, true);
+		}
+		return info;
+	}
+
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
 		Collection<? extends Player> players = Bukkit.getOnlinePlayers();
@@ -68,9 +116,8 @@ public class PlayerListModule implements Module, CommandExecutor {
 		for (Player player : players) {
 			boolean vanished = isVanished(player);
 			if (!vanished || (vanished && canSeeVanished(sender))) {
-				String suffix = (chat != null) ? chat.getPlayerSuffix(player) : "";
 				worldPlayersMap.computeIfAbsent(player.getWorld(), k -> new ArrayList<>())
-						.add(new PlayerInfo(player.getDisplayName(), suffix));
+						.add(getInfo(player));
 			}
 		}
 
@@ -84,17 +131,14 @@ public class PlayerListModule implements Module, CommandExecutor {
 			List<PlayerInfo> infos = entry.getValue();
 			infos.sort(Comparator.comparing(pi -> pi.displayName, String.CASE_INSENSITIVE_ORDER));
 
-			// Collect MiniMessage strings
-			List<String> playerStrings = new ArrayList<>();
+			// Assemble the line from the already parsed names
+			List<Component> playerComponents = new ArrayList<>(infos.size());
 			for (PlayerInfo info : infos) {
-				playerStrings.add(info.fullName());  // Raw minimessage string
+				playerComponents.add(info.component);
 			}
 
-			String playersJoined = String.join("<reset><white>, </white>", playerStrings);
-			String fullMessage = "<green>" + world.getName() + "</green> <yellow>(" + infos.size() + ")</yellow><white>: "
-					+ playersJoined;
-
-			sender.sendMessage(mm.deserialize(fullMessage));
+			Component header = mm.deserialize("<green>" + world.getName() + "</green> <yellow>(" + infos.size() + ")</yellow><white>: </white>");
+			sender.sendMessage(header.append(Component.join(JoinConfiguration.separator(separator), playerComponents)));
 		}
 
 		return true;
@@ -115,4 +159,26 @@ public class PlayerListModule implements Module, CommandExecutor {
 		}
 		return true; // Console
 	}
+
+	/**
+	 * Drops cached names of players joining or leaving, so a rejoin always starts with a fresh name.
+	 * Only registered while names are cached
+	 */
+	private class CacheListener implements Listener {
+		@EventHandler
+		private void onJoin(PlayerJoinEvent event) {
+			invalidate(event.getPlayer());
+		}
+
+		@EventHandler
+		private void onQuit(PlayerQuitEvent event) {
+			invalidate(event.getPlayer());
+		}
+
+		private void invalidate(Player player) {
+			names.remove(player.getUniqueId());
+			if (names.isEmpty())
+				context.setListenerActive(this, false);
+		}
+	}
 }
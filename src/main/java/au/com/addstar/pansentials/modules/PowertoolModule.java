@@ -4,6 +4,7 @@ import com.google.common.collect.Maps;
 
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
+import au.com.addstar.pansentials.metrics.Metrics;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
@@ -26,6 +27,7 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -33,6 +35,8 @@ public class PowertoolModule implements Module, CommandExecutor, Listener {
 	private MasterPlugin plugin;
 	
 	private Map<Player, Map<Material, PowerTool>> powertools;
+	// The number of tools across all players, kept up to date as tools are added and removed
+	private int toolCount;
 	private static final long cooldownDelay = 100;
 	
 	@Override
@@ -46,12 +50,22 @@ public class PowertoolModule implements Module, CommandExecutor, Listener {
 		public void onDisable() {
 		plugin.getCommand("powertool").setExecutor(null);
 		powertools.clear();
+		toolCount = 0;
+		Metrics.setPowertools(0);
 	}
 
 	@Override
 	public void setPandoraInstance(MasterPlugin plugin) {
 		this.plugin = plugin;
 	}
+	
+	@Override
+	public Map<String, Integer> getStateSizes() {
+		Map<String, Integer> sizes = new LinkedHashMap<>();
+		sizes.put("players", powertools.size());
+		sizes.put("powertools", toolCount);
+		return sizes;
+	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command calledCommand, String label, String[] args) {
@@ -75,8 +89,8 @@ public class PowertoolModule implements Module, CommandExecutor, Listener {
 		
 		if (args.length == 0) {
 			Map<Material, PowerTool> tools = powertools.get(player);
-			if (tools != null) {
-                tools.remove(item.getType());
+			if (tools != null && tools.remove(item.getType()) != null) {
+				Metrics.setPowertools(--toolCount);
 			}
 			
 			sender.sendMessage(ChatColor.GREEN + "That item is no longer a powertool");
@@ -105,7 +119,9 @@ public class PowertoolModule implements Module, CommandExecutor, Listener {
 		
 		Map<Material, PowerTool> tools = powertools.computeIfAbsent(player, k -> Maps.newHashMap());
 		
-		tools.put(item.getType(), new PowerTool(message, caller, command));
+		if (tools.put(item.getType(), new PowerTool(message, caller, command)) == null) {
+			Metrics.setPowertools(++toolCount);
+		}
 		
 		sender.sendMessage(ChatColor.GREEN + "That item is now a powertool");
 		
@@ -114,7 +130,11 @@ public class PowertoolModule implements Module, CommandExecutor, Listener {
 	
 	@EventHandler
 	public void onPlayerQuit(PlayerQuitEvent event) {
-		powertools.remove(event.getPlayer());
+		Map<Material, PowerTool> tools = powertools.remove(event.getPlayer());
+		if (tools != null && !tools.isEmpty()) {
+			toolCount -= tools.size();
+			Metrics.setPowertools(toolCount);
+		}
 	}
 
 	@EventHandler(priority = EventPriority.LOW)
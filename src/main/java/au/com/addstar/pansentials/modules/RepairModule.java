@@ -41,7 +41,7 @@ public class RepairModule implements Module, CommandExecutor {
 				} else {
 					return false;
 				}
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "repair.hand"));
+				sender.sendMessage(Utilities.format(sender, "repair.hand"));
 			} else {
 				if (args[0].equalsIgnoreCase("all")) {
 					for (ItemStack stack : ply.getInventory().getContents()) {
@@ -54,7 +54,7 @@ public class RepairModule implements Module, CommandExecutor {
 					}
 					ply.updateInventory();
 				}
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "repair.all"));
+				sender.sendMessage(Utilities.format(sender, "repair.all"));
 			}
 		}
 		return true;
@@ -63,12 +63,12 @@ public class SmiteModule implements Module, CommandExecutor, TabCompleter{
 					smite(effect, ply.getLocation());
 					
 					if(isSchmite){
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "smite.selfSchmite", "%player%:" + plys.get(0).getDisplayName()));
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "smite.otherSchmite"));
+						sender.sendMessage(Utilities.format(sender, "smite.selfSchmite", "%player%:" + plys.get(0).getDisplayName()));
+						ply.sendMessage(Utilities.format(ply, "smite.otherSchmite"));
 					}
 					else{
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "smite.self", "%player%:" + plys.get(0).getDisplayName()));
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "smite.other"));
+						sender.sendMessage(Utilities.format(sender, "smite.self", "%player%:" + plys.get(0).getDisplayName()));
+						ply.sendMessage(Utilities.format(ply, "smite.other"));
 					}
 					return true;
 				}
@@ -10,6 +10,11 @@ import au.com.addstar.monolith.util.Raytrace;
 import au.com.addstar.monolith.util.Raytrace.Hit;
 import au.com.addstar.monolith.util.Stringifier;
 import au.com.addstar.pansentials.CommandModule;
+import au.com.addstar.pansentials.args.CoordinateSpec;
+import au.com.addstar.pansentials.args.Numbers;
+import au.com.addstar.pansentials.args.RelativeCoordinate;
+import au.com.addstar.pansentials.jfr.HeavyOperationEvent;
+import au.com.addstar.pansentials.metrics.Metrics;
 import com.google.common.collect.Lists;
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
@@ -24,8 +29,6 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class SpawnMobModule extends CommandModule {
 	public SpawnMobModule() {
@@ -206,8 +209,9 @@ public class SpawnMobModule extends CommandModule {
 		int startArgIndex = 0;
 		int endArgIndex = args.length;
 
-		if (args[args.length - 1].matches("[0-9]+")) {
-			mobCount = Integer.parseInt(args[args.length - 1]);
+		int lastNumber = Numbers.parseUnsignedInt(args[args.length - 1]);
+		if (lastNumber >= 0) {
+			mobCount = lastNumber;
 			--endArgIndex;
 		}
 
@@ -220,12 +224,11 @@ public class SpawnMobModule extends CommandModule {
 		// #survival[15,65,43] slime|size=1 10    - Spawn 10 slimes of size 1 at absolute coordinates x=15,y=65,z=43 on survival
 		// @a#survival[~5,~,~-15] slime|size=1 5  - Spawn 5 slimes at relative coordinates from every player on the survival world
 
-		Pattern coordsPattern = Pattern.compile("([a-zA-Z0-9_@#]+)?\\[([0-9~-]+),([0-9~-]+),([0-9~-]+)\\]");
-		Matcher reMatch = coordsPattern.matcher(args[0]);
+		CoordinateSpec coords = CoordinateSpec.find(args[0]);
 
-		String coordX = "";
-		String coordY = "";
-		String coordZ = "";
+		RelativeCoordinate coordX = null;
+		RelativeCoordinate coordY = null;
+		RelativeCoordinate coordZ = null;
 		boolean relativeCoordinates = false;
 
 		// List of player names to target
@@ -235,34 +238,29 @@ public class SpawnMobModule extends CommandModule {
 		if (showDebug)
 			sender.sendMessage("Debug: Look for coordinate info");
 
-		if (reMatch.find()) {
+		if (coords != null) {
 			if (args.length < 2) {
 				sender.sendMessage(ChatColor.RED + "Coordinates found in the first argument, but the entitySpec argument is missing");
 				return true;
 			}
 
 			if (showDebug)
-				sender.sendMessage("Debug: parse " + reMatch.group(0));
+				sender.sendMessage("Debug: parse " + args[0]);
 
 			// playerWorldSpec could be a specific playerName, @a, #worldName, @a#worldName, or blank
 
-			String playerWorldSpec = "";
+			String playerWorldSpec = coords.getTarget();
 
-			if (reMatch.group(1) != null) {
-				playerWorldSpec = reMatch.group(1);
-			}
-
-			coordX = reMatch.group(2);
-			coordY = reMatch.group(3);
-			coordZ = reMatch.group(4);
+			coordX = coords.getX();
+			coordY = coords.getY();
+			coordZ = coords.getZ();
 
 			boolean coordsParsed = false;
 
 			if (showDebug)
 				sender.sendMessage("Debug: groups found: " + playerWorldSpec + " / " + coordX + " / " + coordY + " / " + coordZ);
 
-			if (coordX.startsWith("~") || coordY.startsWith("~") || coordZ.startsWith("~"))
-				relativeCoordinates = true;
+			relativeCoordinates = coords.isRelative();
 
 			if (playerWorldSpec.isEmpty()) {
 				if ((sender instanceof Player)) {
@@ -387,9 +385,9 @@ public class SpawnMobModule extends CommandModule {
 			Hit hit = trace.traceOnce(playerLoc, playerLoc.getDirection(), 50);
 			Location target = hit.getLocation();
 
-			coordX = String.valueOf(target.getX());
-			coordY = String.valueOf(target.getY());
-			coordZ = String.valueOf(target.getZ());
+			coordX = RelativeCoordinate.absolute(target.getX());
+			coordY = RelativeCoordinate.absolute(target.getY());
+			coordZ = RelativeCoordinate.absolute(target.getZ());
 
 			String playerName = targetPlayer.getName();
 			playerList.add(playerName);
@@ -431,13 +429,9 @@ public class SpawnMobModule extends CommandModule {
 					if (mob.isEmpty())
 						index = 1;
 					else {
-						try {
-							index = Integer.parseInt(mob);
-							if (index <= 0)
-								throw new IllegalArgumentException(indexValueWarning);
-						} catch (NumberFormatException e) {
+						index = Numbers.parseUnsignedInt(mob);
+						if (index <= 0)
 							throw new IllegalArgumentException(indexValueWarning);
-						}
 					}
 
 					if (index > templates.size())
@@ -456,6 +450,8 @@ public class SpawnMobModule extends CommandModule {
 			// Spawn the entities around 1 or more players
 			int playerCount = 0;
 			int spawned = 0;
+			HeavyOperationEvent event = new HeavyOperationEvent();
+			event.begin();
 
 			for (String playerName : playerList) {
 
@@ -481,9 +477,10 @@ public class SpawnMobModule extends CommandModule {
 						return true;
 					}
 
-					targetX = Double.parseDouble(coordX);
-					targetY = Double.parseDouble(coordY);
-					targetZ = Double.parseDouble(coordZ);
+					// Worlds are only targeted with absolute coordinates, so the base is unused
+					targetX = coordX.resolve(0);
+					targetY = coordY.resolve(0);
+					targetZ = coordZ.resolve(0);
 
 					if (showDebug)
 						sender.sendMessage("Debug: spawning at coords " + targetX + "," + targetY + "," + targetZ + ", world " + targetWorld);
@@ -497,9 +494,9 @@ public class SpawnMobModule extends CommandModule {
 					Player targetPlayer = players.get(0);
 					Location playerLocation = targetPlayer.getLocation();
 
-					targetX = ResolveCoordinate(coordX, playerLocation.getX(), sender);
-					targetY = ResolveCoordinate(coordY, playerLocation.getY(), sender);
-					targetZ = ResolveCoordinate(coordZ, playerLocation.getZ(), sender);
+					targetX = coordX.resolve(playerLocation.getX());
+					targetY = coordY.resolve(playerLocation.getY());
+					targetZ = coordZ.resolve(playerLocation.getZ());
 					targetWorld = targetPlayer.getWorld();
 
 					if (showDebug)
@@ -523,6 +520,8 @@ public class SpawnMobModule extends CommandModule {
 				}
 				++playerCount;
 			}
+			event.complete("spawnmob", firstMob, spawned);
+			Metrics.recordEntitiesSpawned("SpawnMob", spawned);
 
 			if (playerCount > 1) {
 				sender.sendMessage(ChatColor.GREEN + "Processed " + playerCount + " players and spawned " + spawned + " total entities");
@@ -604,26 +603,6 @@ public class SpawnMobModule extends CommandModule {
 		return true;
 	}
 
-	private Double ResolveCoordinate(String coordSpec, double playerCoord, CommandSender sender) {
-		if (coordSpec.isEmpty() || coordSpec.equals("~")) {
-			return playerCoord;
-		}
-
-		try {
-
-			if (coordSpec.startsWith("~")) {
-				Double relativeCoordinate = Double.parseDouble(coordSpec.substring(1));
-				return playerCoord + relativeCoordinate;
-			}
-
-			return Double.parseDouble(coordSpec);
-		} catch (NumberFormatException e) {
-			sender.sendMessage(ChatColor.RED + "Error parsing coordinate " + coordSpec + "; defaulting to " + playerCoord);
-			return playerCoord;
-		}
-
-	}
-
 	private void ShowConsoleUsageWarning(CommandSender sender) {
 		sender.sendMessage(ChatColor.RED + "Must specify absolute coordinates with #world[x,y,z] since not in-game");
 		sender.sendMessage(ChatColor.RED + "Or, use absolute and/or relative coordinates with PlayerName[x,y,z] or #worldName[x,y,z] or @a[x,y,z] or @a#worldName[x,y,z]");
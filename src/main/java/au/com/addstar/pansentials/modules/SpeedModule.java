@@ -3,13 +3,16 @@ package au.com.addstar.pansentials.modules;
 import au.com.addstar.pansentials.MasterPlugin;
 import au.com.addstar.pansentials.Module;
 import au.com.addstar.pansentials.Utilities;
+import au.com.addstar.pansentials.args.Speeds;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -17,6 +20,7 @@ import java.util.List;
 public class SpeedModule implements Module, CommandExecutor, TabCompleter{
 	
 	private MasterPlugin plugin;
+	private volatile SpeedLimit[] maxSpeeds = new SpeedLimit[0];
 
 	@Override
 	public void onEnable() {
@@ -30,10 +34,35 @@ public class SpeedModule implements Module, CommandExecutor, TabCompleter{
 		plugin.getCommand("speed").setTabCompleter(null);
 	}
 
+	@Override
+	public void onPrepare() {
+		maxSpeeds = loadMaxSpeeds();
+	}
+
+	@Override
+	public void onSettingsReload() {
+		maxSpeeds = loadMaxSpeeds();
+	}
+
 	@Override
 	public void setPandoraInstance(MasterPlugin plugin) {
 		this.plugin = plugin;
 	}
+	
+	/**
+	 * Reads the speed.maxSpeed section of format.yml, keeping the order of the keys
+	 */
+	private SpeedLimit[] loadMaxSpeeds() {
+		ConfigurationSection section = plugin.getFormatConfig().getConfigurationSection("speed.maxSpeed");
+		if(section == null)
+			return new SpeedLimit[0];
+		
+		List<SpeedLimit> limits = new ArrayList<>();
+		for(String key : section.getKeys(false)){
+			limits.add(new SpeedLimit("pansentials.maxspeed." + key, (float)section.getDouble(key)));
+		}
+		return limits.toArray(new SpeedLimit[0]);
+	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String cmd,
@@ -41,107 +70,97 @@ public class SpeedModule implements Module, CommandExecutor, TabCompleter{
 		if(command.getName().equalsIgnoreCase("speed")){
 			if(args.length == 1 && sender instanceof Player){
 				Player ply = (Player) sender;
-				if(args[0].matches("[0-9]+(.[0-9]+)?") && Float.valueOf(args[0]) >= 0 && Float.valueOf(args[0]) <= 10){
-					float speed = Float.valueOf(args[0]);
+				float speed = Speeds.parse(args[0]);
+				if(!Float.isNaN(speed)){
 					
-					if(plugin.getFormatConfig().contains("speed.maxSpeed") && !ply.isOp()){
-						for(String key : plugin.getFormatConfig().getConfigurationSection("speed.maxSpeed").getKeys(false)){
-							if(ply.hasPermission("pansentials.maxspeed." + key)){
-								if(speed > plugin.getFormatConfig().getInt("speed.maxSpeed." + key)){
-									speed = Double.valueOf(plugin.getFormatConfig().getDouble("speed.maxSpeed." + key)).floatValue();
+					if(!ply.isOp()){
+						for(SpeedLimit limit : maxSpeeds){
+							if(ply.hasPermission(limit.permission)){
+								if(speed > limit.speed){
+									speed = limit.speed;
 								}
 								break;
 							}
 						}
 					}
 					
-					String ss = String.valueOf(speed);
-					if(ss.endsWith(".0")){
-						ss = ss.replace(".0", "");
-					}
+					String ss = Speeds.format(speed);
 					
 					if(ply.isFlying()){
 						ply.setFlySpeed(0.1f * speed);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfFly", "%speed%:" + ss));
+						ply.sendMessage(Utilities.format(ply, "speed.selfFly", "%speed%:" + ss));
 					}
 					else{
 						if(speed > 5)
 							speed = 5;
 						ply.setWalkSpeed(0.2f * speed);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfWalk", "%speed%:" + ss));
+						ply.sendMessage(Utilities.format(ply, "speed.selfWalk", "%speed%:" + ss));
 					}
 				}
 				else{
-					ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.invalidSpeed", "%speed%:" + args[0]));
+					ply.sendMessage(Utilities.format(ply, "speed.invalidSpeed", "%speed%:" + args[0]));
 				}
 			}
 			else if(args.length == 2){
+				float speed = Speeds.parse(args[1]);
 				if(sender instanceof Player && (args[0].equalsIgnoreCase("walk") || args[0].equalsIgnoreCase("fly")) &&
-						args[1].matches("[0-9]+(.[0-9]+)?") && Float.valueOf(args[1]) >= 0 && Float.valueOf(args[1]) <= 10){
+						!Float.isNaN(speed)){
 					Player ply = (Player) sender;
-					float speed = Float.valueOf(args[1]);
 					
-					String ss = String.valueOf(speed);
-					if(ss.endsWith(".0")){
-						ss = ss.replace(".0", "");
-					}
+					String ss = Speeds.format(speed);
 					
 					if(args[0].equalsIgnoreCase("walk")){
 						if(speed > 5)
 							speed = 5;
 						ply.setWalkSpeed(0.2f * speed);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfWalk", "%speed%:" + ss));
+						ply.sendMessage(Utilities.format(ply, "speed.selfWalk", "%speed%:" + ss));
 					}
 					else{
 						ply.setFlySpeed(0.1f * speed);
-						ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfFly", "%speed%:" + ss));
+						ply.sendMessage(Utilities.format(ply, "speed.selfFly", "%speed%:" + ss));
 					}
 				}
-				else if(!args[1].matches("[0-9]+(.[0-9]+)?")){
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.invalidSpeed", "%speed%:" + args[1]));
+				else if(Float.isNaN(speed)){
+					sender.sendMessage(Utilities.format(sender, "speed.invalidSpeed", "%speed%:" + args[1]));
 				}
 				else if(!args[0].equalsIgnoreCase("walk") && !args[0].equalsIgnoreCase("fly")){
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.invalidParameter", "%parameter%:" + args[0]));
+					sender.sendMessage(Utilities.format(sender, "speed.invalidParameter", "%parameter%:" + args[0]));
 				}
 			}
 			else if(args.length == 3){
 				if(sender.hasPermission("pansentials.fly.other")){
 					List<Player> plys = Bukkit.getServer().matchPlayer(args[0]);
 					if(!plys.isEmpty()){
-						if((args[1].equalsIgnoreCase("walk") || args[1].equalsIgnoreCase("fly") && args[2].matches("[0-9]+(.[0-9]+)?")) &&
-								Float.valueOf(args[2]) >= 0 && Float.valueOf(args[2]) <= 10){
+						float speed = Speeds.parse(args[2]);
+						if((args[1].equalsIgnoreCase("walk") || args[1].equalsIgnoreCase("fly")) && !Float.isNaN(speed)){
 							Player ply = plys.get(0);
-							float speed = Float.valueOf(args[2]);
 							
-							String ss = String.valueOf(speed);
-							if(ss.endsWith(".0")){
-								ss = ss.replace(".0", "");
-							}
+							String ss = Speeds.format(speed);
 							
 							if(args[1].equalsIgnoreCase("walk")){
 								if(speed > 5)
 									speed = 5;
 								ply.setWalkSpeed(0.2f * speed);
-								ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfWalk", "%speed%:" + ss));
-								sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.otherWalk", "%player%:" + ply.getName(), 
+								ply.sendMessage(Utilities.format(ply, "speed.selfWalk", "%speed%:" + ss));
+								sender.sendMessage(Utilities.format(sender, "speed.otherWalk", "%player%:" + ply.getName(), 
 										"%speed%:" + ss));
 							}
 							else{
 								ply.setFlySpeed(0.1f * speed);
-								ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.selfFly", "%speed%:" + ss));
-								sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.otherFly", "%player%:" + ply.getName(), 
+								ply.sendMessage(Utilities.format(ply, "speed.selfFly", "%speed%:" + ss));
+								sender.sendMessage(Utilities.format(sender, "speed.otherFly", "%player%:" + ply.getName(), 
 										"%speed%:" + ss));
 							}
 						}
-						else if(!args[2].matches("[0-9]+(.[0-9]+)?")){
-							sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.invalidSpeed", "%speed%:" + args[2]));
+						else if(Float.isNaN(speed)){
+							sender.sendMessage(Utilities.format(sender, "speed.invalidSpeed", "%speed%:" + args[2]));
 						}
 						else if(!args[1].equalsIgnoreCase("walk") && !args[1].equalsIgnoreCase("fly")){
-							sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "speed.invalidParameter", "%parameter%:" + args[1]));
+							sender.sendMessage(Utilities.format(sender, "speed.invalidParameter", "%parameter%:" + args[1]));
 						}
 					}
 					else{
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+						sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 					}
 				}
 			}
@@ -171,5 +190,15 @@ public class SpeedModule implements Module, CommandExecutor, TabCompleter{
 		}
 		return null;
 	}
+	
+	private static class SpeedLimit {
+		final String permission;
+		final float speed;
+		
+		SpeedLimit(String permission, float speed) {
+			this.permission = permission;
+			this.speed = speed;
+		}
+	}
 
 }
@@ -39,17 +39,17 @@ public class StackModule implements Module, CommandExecutor{
 			if(args.length == 0 && sender instanceof Player){
 				Player ply = (Player)sender;
 				stack(ply);
-				ply.sendMessage(Utilities.format(plugin.getFormatConfig(), "stack.self"));
+				ply.sendMessage(Utilities.format(ply, "stack.self"));
 			}
 			else{
 				if(args.length > 0) { //correct Array out of bounds exception for /stack
 					List<Player> plys = Bukkit.matchPlayer(args[0]);
 					if (!plys.isEmpty()) {
 						stack(plys.get(0));
-						plys.get(0).sendMessage(Utilities.format(plugin.getFormatConfig(), "stack.self"));
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "stack.other", "%player%:" + plys.get(0).getName()));
+						plys.get(0).sendMessage(Utilities.format(plys.get(0), "stack.self"));
+						sender.sendMessage(Utilities.format(sender, "stack.other", "%player%:" + plys.get(0).getName()));
 					} else {
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+						sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 					}
 				}else{
 					sender.sendMessage("Cannot parse no arguments from console.");
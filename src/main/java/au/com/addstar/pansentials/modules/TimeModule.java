@@ -60,7 +60,7 @@ public class TimeModule implements Module, CommandExecutor{
 				if (sender instanceof Player) {
 					// Check perms of player
 					if (!sender.hasPermission("pansentials.time.set")) {
-						sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+						sender.sendMessage(Utilities.format(sender, "noPermission"));
 						return true;
 					}
 				} else {
@@ -124,7 +124,7 @@ public class TimeModule implements Module, CommandExecutor{
 				time = args[0];
 			} else {
 				if (!sender.hasPermission("pansentials.ptime.others")) {
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPermission"));
+					sender.sendMessage(Utilities.format(sender, "noPermission"));
 					return true;
 				}
 				player = Bukkit.getPlayer(args[0]);
@@ -138,7 +138,7 @@ public class TimeModule implements Module, CommandExecutor{
 			if (time.equalsIgnoreCase("reset") || time.equalsIgnoreCase("default")) {
 				player.setPlayerTime(0, true);
 				sender.sendMessage(Utilities.format(
-						plugin.getFormatConfig(),
+						sender,
 						"time.setPTimeReset",
 						"%player%:" + player.getDisplayName()
 				));
@@ -162,7 +162,7 @@ public class TimeModule implements Module, CommandExecutor{
 					player.setPlayerTime(ticks, false);
 					
 					sender.sendMessage(Utilities.format(
-							plugin.getFormatConfig(),
+							sender,
 							"time.setPTimeStatic",
 							"%player%:" + player.getDisplayName(),
 							"%time12%:" + DescParseTickFormat.format12(ticks),
@@ -172,7 +172,7 @@ public class TimeModule implements Module, CommandExecutor{
 				} else {
 					player.setPlayerTime(ticks - player.getWorld().getTime(), true);
 					sender.sendMessage(Utilities.format(
-							plugin.getFormatConfig(),
+							sender,
 							"time.setPTime",
 							"%player%:" + player.getDisplayName(),
 							"%time12%:" + DescParseTickFormat.format12(ticks),
@@ -223,7 +223,7 @@ public class TimeModule implements Module, CommandExecutor{
 			output.append(world.getName());
 		}
 		sender.sendMessage(Utilities.format(
-				plugin.getFormatConfig(),
+				sender,
 				"time.setTime",
 				"%world%:" + output.toString(),
 				"%time12%:" + DescParseTickFormat.format12(ticks),
@@ -235,7 +235,7 @@ public class TimeModule implements Module, CommandExecutor{
 	private void getWorldsTime(final CommandSender sender, final Collection<World> worlds) {
 		for (World world : worlds) {
 			sender.sendMessage(Utilities.format(
-					plugin.getFormatConfig(),
+					sender,
 					"time.timeFormat",
 					"%world%:" + world.getName(),
 					"%time12%:" + DescParseTickFormat.format12(world.getTime()),
@@ -55,29 +55,29 @@ public class WhoIsModule implements Module, CommandExecutor{
 			List<Player> plys = Bukkit.getServer().matchPlayer(args[0]);
 			if(!plys.isEmpty()){
 				Player ply = plys.get(0);
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.header", "%player%:" + ply.getName()));
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.nick", "%nick%:" + ply.getDisplayName()));
+				sender.sendMessage(Utilities.format(sender, "whois.header", "%player%:" + ply.getName()));
+				sender.sendMessage(Utilities.format(sender, "whois.nick", "%nick%:" + ply.getDisplayName()));
                 Double d = ply.getHealth();
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.health", "%health%:" + d.intValue() + "/20"));
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.hunger", "%hunger%:" + ply.getFoodLevel() + "/20", 
+				sender.sendMessage(Utilities.format(sender, "whois.health", "%health%:" + d.intValue() + "/20"));
+				sender.sendMessage(Utilities.format(sender, "whois.hunger", "%hunger%:" + ply.getFoodLevel() + "/20", 
 						"%saturation%:" + Float.valueOf(ply.getSaturation()).intValue()));
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.exp", "%exp%:" + ply.getTotalExperience(), "%level%:" + ply.getLevel()));
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.pos", "%world%:" + ply.getLocation().getWorld().getName(), 
+				sender.sendMessage(Utilities.format(sender, "whois.exp", "%exp%:" + ply.getTotalExperience(), "%level%:" + ply.getLevel()));
+				sender.sendMessage(Utilities.format(sender, "whois.pos", "%world%:" + ply.getLocation().getWorld().getName(), 
 						"%x%:" + ply.getLocation().getBlockX(), "%y%:" + ply.getLocation().getBlockY(), "%z%:" + ply.getLocation().getBlockZ()));
 				if(econ != null){
-					sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.money", "%money%:" + econ.getBalance(ply.getPlayer())));
+					sender.sendMessage(Utilities.format(sender, "whois.money", "%money%:" + econ.getBalance(ply.getPlayer())));
 				}
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.ip", "%ip%:" + ply.getAddress().getAddress().toString()));
+				sender.sendMessage(Utilities.format(sender, "whois.ip", "%ip%:" + ply.getAddress().getAddress().toString()));
 				//Location
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.gamemode", "%gamemode%:" + ply.getGameMode().toString().toLowerCase()));
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.op", "%op%:" + ply.isOp()));
+				sender.sendMessage(Utilities.format(sender, "whois.gamemode", "%gamemode%:" + ply.getGameMode().toString().toLowerCase()));
+				sender.sendMessage(Utilities.format(sender, "whois.op", "%op%:" + ply.isOp()));
 				String isFlying = "Not Flying";
 				if(ply.isFlying())
 					isFlying = "Flying";
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "whois.fly", "%flymode%:" + ply.getAllowFlight(), "%flying%:" + isFlying));
+				sender.sendMessage(Utilities.format(sender, "whois.fly", "%flymode%:" + ply.getAllowFlight(), "%flying%:" + isFlying));
 			}
 			else{
-				sender.sendMessage(Utilities.format(plugin.getFormatConfig(), "noPlayer", "%name%:" + args[0]));
+				sender.sendMessage(Utilities.format(sender, "noPlayer", "%name%:" + args[0]));
 			}
 			
 			return true;
@@ -0,0 +1,33 @@
+package au.com.addstar.pansentials.timings;
+
+/**
+ * Invocation count and latency distribution of a single event handler method or command label
+ */
+public final class HandlerTimings
+{
+	private final String mOwner;
+	private final String mHandler;
+	private final LatencyHistogram mHistogram;
+	
+	HandlerTimings(String owner, String handler)
+	{
+		mOwner = owner;
+		mHandler = handler;
+		mHistogram = new LatencyHistogram();
+	}
+	
+	public String getOwner()
+	{
+		return mOwner;
+	}
+	
+	public String getHandler()
+	{
+		return mHandler;
+	}
+	
+	public LatencyHistogram getHistogram()
+	{
+		return mHistogram;
+	}
+}
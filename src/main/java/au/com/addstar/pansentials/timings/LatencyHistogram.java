@@ -0,0 +1,148 @@
+package au.com.addstar.pansentials.timings;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with logarithmic buckets.<br/>
+ * Each power of two is split into 4 sub buckets so percentiles are accurate to within 25%.
+ * Recording never allocates and can be done from any thread.
+ */
+public final class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = 64 * SUB_BUCKETS;
+	
+	private final AtomicLongArray mBuckets;
+	private final LongAdder mCount;
+	private final LongAdder mTotal;
+	private final LongAccumulator mMax;
+	
+	public LatencyHistogram()
+	{
+		mBuckets = new AtomicLongArray(BUCKETS);
+		mCount = new LongAdder();
+		mTotal = new LongAdder();
+		mMax = new LongAccumulator(Math::max, 0);
+	}
+	
+	/**
+	 * Records a single sample
+	 * @param nanos The measured duration in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		if(nanos < 0)
+			nanos = 0;
+		
+		mBuckets.incrementAndGet(indexOf(nanos));
+		mCount.increment();
+		mTotal.add(nanos);
+		mMax.accumulate(nanos);
+	}
+	
+	public long getCount()
+	{
+		return mCount.sum();
+	}
+	
+	public long getTotal()
+	{
+		return mTotal.sum();
+	}
+	
+	public long getMax()
+	{
+		return mMax.get();
+	}
+	
+	public long getMean()
+	{
+		long count = getCount();
+		if(count == 0)
+			return 0;
+		
+		return getTotal() / count;
+	}
+	
+	/**
+	 * Estimates a percentile from the recorded samples
+	 * @param quantile The quantile to find, between 0 and 1
+	 * @return The upper bound in nanoseconds of the bucket holding that quantile
+	 */
+	public long getPercentile(double quantile)
+	{
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for(int i = 0; i < BUCKETS; ++i)
+		{
+			counts[i] = mBuckets.get(i);
+			count += counts[i];
+		}
+		
+		if(count == 0)
+			return 0;
+		
+		long target = Math.max(1, (long)Math.ceil(quantile * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; ++i)
+		{
+			seen += counts[i];
+			if(seen >= target)
+				return Math.min(upperBoundOf(i), getMax());
+		}
+		
+		return getMax();
+	}
+	
+	/**
+	 * Calls the consumer for every non empty bucket in ascending order
+	 */
+	public void forEachBucket(BucketConsumer consumer)
+	{
+		for(int i = 0; i < BUCKETS; ++i)
+		{
+			long count = mBuckets.get(i);
+			if(count > 0)
+				consumer.accept(upperBoundOf(i), count);
+		}
+	}
+	
+	public void reset()
+	{
+		for(int i = 0; i < BUCKETS; ++i)
+			mBuckets.set(i, 0);
+		
+		mCount.reset();
+		mTotal.reset();
+		mMax.reset();
+	}
+	
+	static int indexOf(long value)
+	{
+		if(value < SUB_BUCKETS)
+			return (int)value;
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int mantissa = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+	}
+	
+	static long upperBoundOf(int index)
+	{
+		if(index < SUB_BUCKETS)
+			return index;
+		
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int mantissa = index % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (SUB_BUCKETS + mantissa) * width + width - 1;
+	}
+	
+	public interface BucketConsumer
+	{
+		void accept(long upperBound, long count);
+	}
+}
@@ -0,0 +1,97 @@
+package au.com.addstar.pansentials.timings;
+
+import au.com.addstar.pansentials.jfr.CommandExecutionEvent;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.List;
+
+/**
+ * Wraps the executor of a command so that its invocations are timed per label while
+ * {@link Timings#isCollecting()} is set. Invocations slower than the log threshold are
+ * written to the {@link TimingsLog}. A {@link CommandExecutionEvent} is also emitted
+ * whenever a JFR recording has it enabled.
+ */
+public final class TimedCommandExecutor implements CommandExecutor, TabCompleter
+{
+	private final String mOwner;
+	private final CommandExecutor mDelegate;
+	private final TimingsLog mLog;
+	
+	public TimedCommandExecutor(String owner, CommandExecutor delegate, TimingsLog log)
+	{
+		mOwner = owner;
+		mDelegate = delegate;
+		mLog = log;
+	}
+	
+	public CommandExecutor getDelegate()
+	{
+		return mDelegate;
+	}
+	
+	@Override
+	public boolean onCommand( CommandSender sender, Command command, String label, String[] args )
+	{
+		boolean timed = Timings.isCollecting();
+		if(!timed && !CommandExecutionEvent.isRecording())
+			return mDelegate.onCommand(sender, command, label, args);
+		
+		CommandExecutionEvent event = new CommandExecutionEvent();
+		event.begin();
+		long start = System.nanoTime();
+		try
+		{
+			return mDelegate.onCommand(sender, command, label, args);
+		}
+		finally
+		{
+			long nanos = System.nanoTime() - start;
+			if(timed)
+			{
+				Timings.getCommandTimings(mOwner, normalizeLabel(label)).getHistogram().record(nanos);
+				if(mLog != null && Timings.isEnabled())
+					mLog.logCommand(mOwner, sender.getName(), label, args, nanos);
+			}
+			event.complete(mOwner, label, sender);
+		}
+	}
+	
+	/**
+	 * Forwards tab completion so that executors which are also completers keep
+	 * working for commands with no explicit tab completer set.
+	 */
+	@Override
+	public List<String> onTabComplete( CommandSender sender, Command command, String label, String[] args )
+	{
+		if(mDelegate instanceof TabCompleter)
+			return ((TabCompleter)mDelegate).onTabComplete(sender, command, label, args);
+		
+		return null;
+	}
+	
+	/**
+	 * Strips the plugin prefix from fallback labels such as "pansentials:near"
+	 */
+	private static String normalizeLabel(String label)
+	{
+		int index = label.indexOf(':');
+		if(index >= 0)
+			label = label.substring(index + 1);
+		
+		return label.toLowerCase();
+	}
+	
+	/**
+	 * @return The executor wrapped by a timed executor, or the executor itself if it is not wrapped
+	 */
+	public static CommandExecutor unwrap(CommandExecutor executor)
+	{
+		if(executor instanceof TimedCommandExecutor)
+			return ((TimedCommandExecutor)executor).getDelegate();
+		
+		return executor;
+	}
+}
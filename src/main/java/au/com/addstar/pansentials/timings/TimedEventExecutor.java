@@ -0,0 +1,96 @@
+package au.com.addstar.pansentials.timings;
+
+import au.com.addstar.pansentials.jfr.ListenerDispatchEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Wraps the executor of an event handler so that its invocations are timed while
+ * {@link Timings#isCollecting()} is set. A {@link ListenerDispatchEvent} is also emitted
+ * whenever a JFR recording has it enabled.
+ */
+public final class TimedEventExecutor implements EventExecutor
+{
+	private final Class<? extends Event> mEventClass;
+	private final EventExecutor mDelegate;
+	private final HandlerTimings mTimings;
+	
+	private TimedEventExecutor(Class<? extends Event> eventClass, EventExecutor delegate, HandlerTimings timings)
+	{
+		mEventClass = eventClass;
+		mDelegate = delegate;
+		mTimings = timings;
+	}
+	
+	@Override
+	public void execute( Listener listener, Event event ) throws EventException
+	{
+		if(!mEventClass.isInstance(event))
+			return;
+		
+		boolean timed = Timings.isCollecting();
+		if(!timed && !ListenerDispatchEvent.isRecording())
+		{
+			mDelegate.execute(listener, event);
+			return;
+		}
+		
+		ListenerDispatchEvent dispatch = new ListenerDispatchEvent();
+		dispatch.begin();
+		long start = System.nanoTime();
+		try
+		{
+			mDelegate.execute(listener, event);
+		}
+		finally
+		{
+			if(timed)
+				mTimings.getHistogram().record(System.nanoTime() - start);
+			dispatch.complete(mTimings.getOwner(), mTimings.getHandler());
+		}
+	}
+	
+	/**
+	 * Registers all the {@link EventHandler} methods of a listener, the same way
+	 * {@link org.bukkit.plugin.PluginManager#registerEvents(Listener, Plugin)} does,
+	 * but with timed executors.
+	 * @param owner The name of the module the listener belongs to
+	 * @param listener The listener to register
+	 * @param plugin The plugin to register the handlers for
+	 */
+	public static void registerEvents(String owner, Listener listener, Plugin plugin)
+	{
+		Set<Method> methods = new HashSet<>();
+		Collections.addAll(methods, listener.getClass().getMethods());
+		Collections.addAll(methods, listener.getClass().getDeclaredMethods());
+		
+		for(Method method : methods)
+		{
+			EventHandler handler = method.getAnnotation(EventHandler.class);
+			if(handler == null || method.isBridge() || method.isSynthetic())
+				continue;
+			
+			if(method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+			{
+				plugin.getLogger().severe(String.format("[%s] Invalid event handler %s", owner, method));
+				continue;
+			}
+			
+			Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+			String name = String.format("%s.%s(%s)", listener.getClass().getSimpleName(), method.getName(), eventClass.getSimpleName());
+			
+			EventExecutor executor = new TimedEventExecutor(eventClass, EventExecutor.create(method, eventClass), Timings.getHandlerTimings(owner, name));
+			Bukkit.getPluginManager().registerEvent(eventClass, listener, handler.priority(), executor, plugin, handler.ignoreCancelled());
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package au.com.addstar.pansentials.timings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central switch and registry for the timing data collected for module listeners and commands.<br/>
+ * When timing is off the executors only pay for a single volatile read per event.
+ */
+public final class Timings
+{
+	private static volatile boolean sEnabled = false;
+	private static volatile boolean sExported = false;
+	private static volatile boolean sCollecting = false;
+	private static final ConcurrentHashMap<String, HandlerTimings> sHandlers = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, HandlerTimings> sCommands = new ConcurrentHashMap<>();
+	
+	public static boolean isEnabled()
+	{
+		return sEnabled;
+	}
+	
+	public static void setEnabled(boolean enabled)
+	{
+		sEnabled = enabled;
+		sCollecting = sEnabled || sExported;
+	}
+	
+	/**
+	 * Sets whether the timing data is being exported by the metrics endpoint.
+	 * Histograms are kept up to date while exported even if timings are off.
+	 */
+	public static void setExported(boolean exported)
+	{
+		sExported = exported;
+		sCollecting = sEnabled || sExported;
+	}
+	
+	/**
+	 * @return True if the executors should record into the histograms
+	 */
+	public static boolean isCollecting()
+	{
+		return sCollecting;
+	}
+	
+	/**
+	 * Gets the timings for an event handler, creating them if needed.
+	 * Handlers re-registered after a module reload keep their existing data.
+	 * @param owner The name of the module that owns the handler
+	 * @param handler A description of the handler method
+	 */
+	public static HandlerTimings getHandlerTimings(String owner, String handler)
+	{
+		return sHandlers.computeIfAbsent(owner + ":" + handler, k -> new HandlerTimings(owner, handler));
+	}
+	
+	public static Collection<HandlerTimings> getAllHandlerTimings()
+	{
+		return new ArrayList<>(sHandlers.values());
+	}
+	
+	/**
+	 * Gets the timings for a command label, creating them if needed.
+	 * @param owner The name of the module that executes the command
+	 * @param label The label the command was used with
+	 */
+	public static HandlerTimings getCommandTimings(String owner, String label)
+	{
+		return sCommands.computeIfAbsent(owner + ":" + label, k -> new HandlerTimings(owner, label));
+	}
+	
+	public static Collection<HandlerTimings> getAllCommandTimings()
+	{
+		return new ArrayList<>(sCommands.values());
+	}
+	
+	public static void reset()
+	{
+		for(HandlerTimings timings : sHandlers.values())
+			timings.getHistogram().reset();
+		for(HandlerTimings timings : sCommands.values())
+			timings.getHistogram().reset();
+	}
+	
+	/**
+	 * Formats a duration in nanoseconds using the most readable unit
+	 */
+	public static String formatNanos(long nanos)
+	{
+		if(nanos < 1000)
+			return nanos + "ns";
+		if(nanos < 1000000)
+			return String.format("%.1fus", nanos / 1000d);
+		
+		return String.format("%.2fms", nanos / 1000000d);
+	}
+	
+	private Timings()
+	{
+	}
+}
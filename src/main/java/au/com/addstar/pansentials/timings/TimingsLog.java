@@ -0,0 +1,159 @@
+package au.com.addstar.pansentials.timings;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends slow command invocations and timing summaries to a log file.<br/>
+ * All file access happens on a single background thread so the main thread only pays for
+ * formatting the line. The log is rolled over to a single backup once it grows past the size limit.
+ */
+public final class TimingsLog
+{
+	private static final long MAX_SIZE = 1024 * 1024;
+	private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+	
+	private final File mFile;
+	private final File mBackup;
+	private final Logger mLogger;
+	private final ExecutorService mWriter;
+	
+	private volatile long mThreshold;
+	
+	/**
+	 * @param file The log file to write to
+	 * @param thresholdMillis Command invocations taking at least this long are logged
+	 * @param logger Logger to report write failures to
+	 */
+	public TimingsLog(File file, long thresholdMillis, Logger logger)
+	{
+		mFile = file;
+		mBackup = new File(file.getParentFile(), file.getName() + ".1");
+		mLogger = logger;
+		mThreshold = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		mWriter = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, "Pansentials Timings Log");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	public void setThreshold(long thresholdMillis)
+	{
+		mThreshold = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+	}
+	
+	/**
+	 * Logs a command invocation if it took longer than the threshold
+	 */
+	public void logCommand(String owner, String sender, String label, String[] args, long nanos)
+	{
+		if(nanos < mThreshold)
+			return;
+		
+		String line = String.format("%s [%s] %s ran /%s %s in %s", timestamp(), owner, sender, label, String.join(" ", args), Timings.formatNanos(nanos));
+		submit(Collections.singletonList(line));
+	}
+	
+	/**
+	 * Writes the current command and listener timings to the log
+	 */
+	public void logSummary(String reason)
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("%s Timings summary (%s)", timestamp(), reason));
+		addSummary(lines, "command", Timings.getAllCommandTimings());
+		addSummary(lines, "listener", Timings.getAllHandlerTimings());
+		
+		submit(lines);
+	}
+	
+	private static void addSummary(List<String> lines, String type, Collection<HandlerTimings> all)
+	{
+		List<HandlerTimings> sorted = new ArrayList<>(all);
+		sorted.removeIf(timings -> timings.getHistogram().getCount() == 0);
+		sorted.sort(Comparator.comparingLong((HandlerTimings timings) -> timings.getHistogram().getTotal()).reversed());
+		
+		for(HandlerTimings timings : sorted)
+		{
+			LatencyHistogram histogram = timings.getHistogram();
+			lines.add(String.format("  %s [%s] %s: count %d, total %s, p50 %s, p99 %s, max %s", type, timings.getOwner(), timings.getHandler(),
+					histogram.getCount(), Timings.formatNanos(histogram.getTotal()), Timings.formatNanos(histogram.getPercentile(0.5)),
+					Timings.formatNanos(histogram.getPercentile(0.99)), Timings.formatNanos(histogram.getMax())));
+		}
+	}
+	
+	private void submit(Collection<String> lines)
+	{
+		try
+		{
+			mWriter.execute(() -> write(lines));
+		}
+		catch(RejectedExecutionException e)
+		{
+			// Log has been closed
+		}
+	}
+	
+	private void write(Collection<String> lines)
+	{
+		try
+		{
+			if(mFile.length() > MAX_SIZE)
+				Files.move(mFile.toPath(), mBackup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			
+			try(BufferedWriter writer = Files.newBufferedWriter(mFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+			{
+				for(String line : lines)
+				{
+					writer.write(line);
+					writer.newLine();
+				}
+			}
+		}
+		catch(IOException e)
+		{
+			mLogger.log(Level.WARNING, "Failed to write timings log", e);
+		}
+	}
+	
+	private static String timestamp()
+	{
+		return TIMESTAMP.format(LocalDateTime.now());
+	}
+	
+	/**
+	 * Stops accepting new entries and waits briefly for pending writes to finish
+	 */
+	public void close()
+	{
+		mWriter.shutdown();
+		try
+		{
+			mWriter.awaitTermination(2, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,390 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding an already parsed config to its fields through the cached {@link ConfigSchema}
+ * with the reflective loop it replaced. YAML parsing is left out as it is the same for both.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AutoConfigBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AutoConfigBenchmark
+{
+	private MasterPlugin.Config mConfig;
+	private ConfigurationSection mConfigYml;
+	
+	private SyntheticConfig mSynthetic;
+	private ConfigurationSection mSyntheticYml;
+	
+	@Setup
+	public void setup()
+	{
+		mConfig = new MasterPlugin.Config(new File("config.yml"));
+		mConfig.disabledModules.add("FlyModule");
+		mConfig.safeTeleportHazards.add("POWDER_SNOW");
+		mConfigYml = toYaml(mConfig);
+		
+		mSynthetic = new SyntheticConfig();
+		mSyntheticYml = toYaml(mSynthetic);
+	}
+	
+	private static ConfigurationSection toYaml(AutoConfig config)
+	{
+		YamlConfiguration yml = new YamlConfiguration();
+		for(ConfigSchema.Binding binding : ConfigSchema.of(config.getClass()).getBindings())
+			yml.set(binding.path, binding.save(config));
+		
+		return yml;
+	}
+	
+	@Benchmark
+	public boolean configSchema()
+	{
+		return mConfig.load(mConfigYml);
+	}
+	
+	@Benchmark
+	public boolean configReflective()
+	{
+		return ReflectiveConfigLoader.load(mConfig, mConfigYml);
+	}
+	
+	@Benchmark
+	public boolean syntheticSchema()
+	{
+		return mSynthetic.load(mSyntheticYml);
+	}
+	
+	@Benchmark
+	public boolean syntheticReflective()
+	{
+		return ReflectiveConfigLoader.load(mSynthetic, mSyntheticYml);
+	}
+	
+	/**
+	 * A config with 100 fields of mixed types spread over four categories
+	 */
+	static class SyntheticConfig extends AutoConfig
+	{
+		@ConfigField(category = "section0")
+		int field0 = 0;
+		
+		@ConfigField(category = "section0")
+		boolean field1 = true;
+		
+		@ConfigField(category = "section0")
+		double field2 = 2.5;
+		
+		@ConfigField(category = "section0")
+		long field3 = 3L;
+		
+		@ConfigField(category = "section0")
+		String field4 = "value 4";
+		
+		@ConfigField(category = "section0")
+		int field5 = 5;
+		
+		@ConfigField(category = "section0")
+		boolean field6 = false;
+		
+		@ConfigField(category = "section0")
+		double field7 = 7.5;
+		
+		@ConfigField(category = "section0")
+		long field8 = 8L;
+		
+		@ConfigField(category = "section0")
+		ArrayList<String> field9 = new ArrayList<>(List.of("a9", "b9"));
+		
+		@ConfigField(category = "section0")
+		int field10 = 10;
+		
+		@ConfigField(category = "section0")
+		boolean field11 = true;
+		
+		@ConfigField(category = "section0")
+		double field12 = 12.5;
+		
+		@ConfigField(category = "section0")
+		long field13 = 13L;
+		
+		@ConfigField(category = "section0")
+		String field14 = "value 14";
+		
+		@ConfigField(category = "section0")
+		int field15 = 15;
+		
+		@ConfigField(category = "section0")
+		boolean field16 = false;
+		
+		@ConfigField(category = "section0")
+		double field17 = 17.5;
+		
+		@ConfigField(category = "section0")
+		long field18 = 18L;
+		
+		@ConfigField(category = "section0")
+		ArrayList<String> field19 = new ArrayList<>(List.of("a19", "b19"));
+		
+		@ConfigField(category = "section0")
+		int field20 = 20;
+		
+		@ConfigField(category = "section0")
+		boolean field21 = true;
+		
+		@ConfigField(category = "section0")
+		double field22 = 22.5;
+		
+		@ConfigField(category = "section0")
+		long field23 = 23L;
+		
+		@ConfigField(category = "section0")
+		String field24 = "value 24";
+		
+		@ConfigField(category = "section1")
+		int field25 = 25;
+		
+		@ConfigField(category = "section1")
+		boolean field26 = false;
+		
+		@ConfigField(category = "section1")
+		double field27 = 27.5;
+		
+		@ConfigField(category = "section1")
+		long field28 = 28L;
+		
+		@ConfigField(category = "section1")
+		ArrayList<String> field29 = new ArrayList<>(List.of("a29", "b29"));
+		
+		@ConfigField(category = "section1")
+		int field30 = 30;
+		
+		@ConfigField(category = "section1")
+		boolean field31 = true;
+		
+		@ConfigField(category = "section1")
+		double field32 = 32.5;
+		
+		@ConfigField(category = "section1")
+		long field33 = 33L;
+		
+		@ConfigField(category = "section1")
+		String field34 = "value 34";
+		
+		@ConfigField(category = "section1")
+		int field35 = 35;
+		
+		@ConfigField(category = "section1")
+		boolean field36 = false;
+		
+		@ConfigField(category = "section1")
+		double field37 = 37.5;
+		
+		@ConfigField(category = "section1")
+		long field38 = 38L;
+		
+		@ConfigField(category = "section1")
+		ArrayList<String> field39 = new ArrayList<>(List.of("a39", "b39"));
+		
+		@ConfigField(category = "section1")
+		int field40 = 40;
+		
+		@ConfigField(category = "section1")
+		boolean field41 = true;
+		
+		@ConfigField(category = "section1")
+		double field42 = 42.5;
+		
+		@ConfigField(category = "section1")
+		long field43 = 43L;
+		
+		@ConfigField(category = "section1")
+		String field44 = "value 44";
+		
+		@ConfigField(category = "section1")
+		int field45 = 45;
+		
+		@ConfigField(category = "section1")
+		boolean field46 = false;
+		
+		@ConfigField(category = "section1")
+		double field47 = 47.5;
+		
+		@ConfigField(category = "section1")
+		long field48 = 48L;
+		
+		@ConfigField(category = "section1")
+		ArrayList<String> field49 = new ArrayList<>(List.of("a49", "b49"));
+		
+		@ConfigField(category = "section2")
+		int field50 = 50;
+		
+		@ConfigField(category = "section2")
+		boolean field51 = true;
+		
+		@ConfigField(category = "section2")
+		double field52 = 52.5;
+		
+		@ConfigField(category = "section2")
+		long field53 = 53L;
+		
+		@ConfigField(category = "section2")
+		String field54 = "value 54";
+		
+		@ConfigField(category = "section2")
+		int field55 = 55;
+		
+		@ConfigField(category = "section2")
+		boolean field56 = false;
+		
+		@ConfigField(category = "section2")
+		double field57 = 57.5;
+		
+		@ConfigField(category = "section2")
+		long field58 = 58L;
+		
+		@ConfigField(category = "section2")
+		ArrayList<String> field59 = new ArrayList<>(List.of("a59", "b59"));
+		
+		@ConfigField(category = "section2")
+		int field60 = 60;
+		
+		@ConfigField(category = "section2")
+		boolean field61 = true;
+		
+		@ConfigField(category = "section2")
+		double field62 = 62.5;
+		
+		@ConfigField(category = "section2")
+		long field63 = 63L;
+		
+		@ConfigField(category = "section2")
+		String field64 = "value 64";
+		
+		@ConfigField(category = "section2")
+		int field65 = 65;
+		
+		@ConfigField(category = "section2")
+		boolean field66 = false;
+		
+		@ConfigField(category = "section2")
+		double field67 = 67.5;
+		
+		@ConfigField(category = "section2")
+		long field68 = 68L;
+		
+		@ConfigField(category = "section2")
+		ArrayList<String> field69 = new ArrayList<>(List.of("a69", "b69"));
+		
+		@ConfigField(category = "section2")
+		int field70 = 70;
+		
+		@ConfigField(category = "section2")
+		boolean field71 = true;
+		
+		@ConfigField(category = "section2")
+		double field72 = 72.5;
+		
+		@ConfigField(category = "section2")
+		long field73 = 73L;
+		
+		@ConfigField(category = "section2")
+		String field74 = "value 74";
+		
+		@ConfigField(category = "section3")
+		int field75 = 75;
+		
+		@ConfigField(category = "section3")
+		boolean field76 = false;
+		
+		@ConfigField(category = "section3")
+		double field77 = 77.5;
+		
+		@ConfigField(category = "section3")
+		long field78 = 78L;
+		
+		@ConfigField(category = "section3")
+		ArrayList<String> field79 = new ArrayList<>(List.of("a79", "b79"));
+		
+		@ConfigField(category = "section3")
+		int field80 = 80;
+		
+		@ConfigField(category = "section3")
+		boolean field81 = true;
+		
+		@ConfigField(category = "section3")
+		double field82 = 82.5;
+		
+		@ConfigField(category = "section3")
+		long field83 = 83L;
+		
+		@ConfigField(category = "section3")
+		String field84 = "value 84";
+		
+		@ConfigField(category = "section3")
+		int field85 = 85;
+		
+		@ConfigField(category = "section3")
+		boolean field86 = false;
+		
+		@ConfigField(category = "section3")
+		double field87 = 87.5;
+		
+		@ConfigField(category = "section3")
+		long field88 = 88L;
+		
+		@ConfigField(category = "section3")
+		ArrayList<String> field89 = new ArrayList<>(List.of("a89", "b89"));
+		
+		@ConfigField(category = "section3")
+		int field90 = 90;
+		
+		@ConfigField(category = "section3")
+		boolean field91 = true;
+		
+		@ConfigField(category = "section3")
+		double field92 = 92.5;
+		
+		@ConfigField(category = "section3")
+		long field93 = 93L;
+		
+		@ConfigField(category = "section3")
+		String field94 = "value 94";
+		
+		@ConfigField(category = "section3")
+		int field95 = 95;
+		
+		@ConfigField(category = "section3")
+		boolean field96 = false;
+		
+		@ConfigField(category = "section3")
+		double field97 = 97.5;
+		
+		@ConfigField(category = "section3")
+		long field98 = 98L;
+		
+		@ConfigField(category = "section3")
+		ArrayList<String> field99 = new ArrayList<>(List.of("a99", "b99"));
+	}
+}
@@ -0,0 +1,95 @@
+package au.com.addstar.pansentials;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting messages through {@link MessageTemplates} with the regex based
+ * Utilities.format it replaced, for messages with no, one and four placeholders.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MessageTemplateBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageTemplateBenchmark
+{
+	private FileConfiguration mFormat;
+	private String mPlayer;
+	
+	@Setup
+	public void setup()
+	{
+		mFormat = new YamlConfiguration();
+		mFormat.set("fly.selfEnable", "&6Set fly mode &cenabled&6!");
+		mFormat.set("fly.other.execDisable", "&6Set fly mode &cdisabled &6for %player%");
+		mFormat.set("exp.info", "&6%player% has &c%exp% &6Exp (level &c%level%&6) and needs &c%amount% &6more exp to level up.");
+		
+		mPlayer = "Notch";
+	}
+	
+	/**
+	 * Utilities.format as it was before messages were compiled into templates
+	 */
+	private static String legacyFormat(FileConfiguration config, String path, String... args)
+	{
+		if(!config.contains(path)) return ChatColor.RED + "No format value found for path:" + path + "!";
+		String form = ChatColor.translateAlternateColorCodes("&".charAt(0), config.getString(path));
+		for(String arg : args){
+			String[] parts = arg.split(":", 2);
+			form = form.replaceAll(parts[0], parts[1]);
+		}
+		return form;
+	}
+	
+	@Benchmark
+	public String plainLegacy()
+	{
+		return legacyFormat(mFormat, "fly.selfEnable");
+	}
+	
+	@Benchmark
+	public String plainTemplate()
+	{
+		return MessageTemplates.of(mFormat).get("fly.selfEnable").render();
+	}
+	
+	@Benchmark
+	public String oneArgLegacy()
+	{
+		return legacyFormat(mFormat, "fly.other.execDisable", "%player%:" + mPlayer);
+	}
+	
+	@Benchmark
+	public String oneArgTemplate()
+	{
+		return MessageTemplates.of(mFormat).get("fly.other.execDisable").render("%player%:" + mPlayer);
+	}
+	
+	@Benchmark
+	public String fourArgsLegacy()
+	{
+		return legacyFormat(mFormat, "exp.info", "%player%:" + mPlayer, "%exp%:" + 7, "%level%:" + 30, "%amount%:" + 112);
+	}
+	
+	@Benchmark
+	public String fourArgsTemplate()
+	{
+		return MessageTemplates.of(mFormat).get("exp.info").render("%player%:" + mPlayer, "%exp%:" + 7, "%level%:" + 30, "%amount%:" + 112);
+	}
+}
@@ -0,0 +1,116 @@
+package au.com.addstar.pansentials;
+
+import org.apache.commons.lang3.Validate;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The field binding loop {@link AutoConfig#load(ConfigurationSection)} used before {@link ConfigSchema}.
+ * Every call looks up the fields, their annotations and their types again through reflection.
+ * Kept only as the baseline of {@link AutoConfigBenchmark}. Array fields are left out as none of the benchmarked configs have any.
+ */
+final class ReflectiveConfigLoader
+{
+	private ReflectiveConfigLoader()
+	{
+	}
+	
+	@SuppressWarnings( "unchecked" )
+	static boolean load(AutoConfig config, ConfigurationSection yml)
+	{
+		try
+		{
+			for(Field field : config.getClass().getDeclaredFields())
+			{
+				ConfigField configField = field.getAnnotation(ConfigField.class);
+				if(configField == null)
+					continue;
+				
+				String optionName = configField.name();
+				if(optionName.isEmpty())
+					optionName = field.getName();
+				
+				field.setAccessible(true);
+				
+				String path = (configField.category().isEmpty() ? "" : configField.category() + ".") + optionName; //$NON-NLS-1$ //$NON-NLS-2$
+				if(!yml.contains(path))
+				{
+					if(field.get(config) == null)
+						throw new InvalidConfigurationException(path + " is required to be set! Info:\n" + configField.comment()); //$NON-NLS-1$
+				}
+				else if(List.class.isAssignableFrom(field.getType()) || Set.class.isAssignableFrom(field.getType()))
+				{
+					Type type = ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0];
+					
+					if(type.equals(Integer.class))
+						field.set(config, newCollection(field.getType(), yml.getIntegerList(path)));
+					else if(type.equals(Float.class))
+						field.set(config, newCollection(field.getType(), yml.getFloatList(path)));
+					else if(type.equals(Double.class))
+						field.set(config, newCollection(field.getType(), yml.getDoubleList(path)));
+					else if(type.equals(Long.class))
+						field.set(config, newCollection(field.getType(), yml.getLongList(path)));
+					else if(type.equals(Short.class))
+						field.set(config, newCollection(field.getType(), yml.getShortList(path)));
+					else if(type.equals(Boolean.class))
+						field.set(config, newCollection(field.getType(), yml.getBooleanList(path)));
+					else if(type.equals(String.class))
+						field.set(config, newCollection(field.getType(), yml.getStringList(path)));
+					else
+						throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + "<" + type.toString() + "> for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				else if(field.getType().equals(Integer.TYPE))
+					field.setInt(config, yml.getInt(path));
+				else if(field.getType().equals(Float.TYPE))
+					field.setFloat(config, (float)yml.getDouble(path));
+				else if(field.getType().equals(Double.TYPE))
+					field.setDouble(config, yml.getDouble(path));
+				else if(field.getType().equals(Long.TYPE))
+					field.setLong(config, yml.getLong(path));
+				else if(field.getType().equals(Short.TYPE))
+					field.setShort(config, (short)yml.getInt(path));
+				else if(field.getType().equals(Boolean.TYPE))
+					field.setBoolean(config, yml.getBoolean(path));
+				else if(field.getType().equals(ItemStack.class))
+					field.set(config, yml.getItemStack(path));
+				else if(field.getType().equals(String.class))
+					field.set(config, yml.getString(path));
+				else
+					throw new IllegalArgumentException("Cannot use type " + field.getType().getSimpleName() + " for AutoConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			
+			config.onPostLoad();
+			
+			return true;
+		} catch (IllegalAccessException | IllegalArgumentException | InvalidConfigurationException e)
+		{
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	private static Object newCollection(Class<?> type, Collection<?> data) throws InvalidConfigurationException
+	{
+		Validate.isTrue(!Modifier.isAbstract(type.getModifiers()), "You cannot use an abstract type for AutoConfiguration");
+		
+		try
+		{
+			Constructor<?> constructor = type.getConstructor(Collection.class);
+			return constructor.newInstance(data);
+		}
+		catch(Exception e)
+		{
+			throw new InvalidConfigurationException(e);
+		}
+	}
+}
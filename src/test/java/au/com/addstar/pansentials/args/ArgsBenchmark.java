@@ -0,0 +1,154 @@
+package au.com.addstar.pansentials.args;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the argument parsers with the regex based checks and parsing the commands used before them.
+ * Each legacy method is the old code of the command, minus its messages.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ArgsBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ArgsBenchmark
+{
+	private String mDuration = "1d12h30m";
+	private String mSpeed = "1.5";
+	private String mExp = "L30";
+	private String mCount = "25";
+	private String mCoordinates = "@a#survival[~5,~,~-15]";
+	
+	private double mBaseX = 100.5;
+	private double mBaseY = 64;
+	private double mBaseZ = -20.5;
+	
+	@Benchmark
+	public long durationLegacy()
+	{
+		String dateDiff = mDuration;
+		
+		Pattern dateDiffPattern = Pattern.compile("^\\s*(\\-|\\+)?\\s*(?:([0-9]+)y)?\\s*(?:([0-9]+)mo)?\\s*(?:([0-9]+)w)?\\s*(?:([0-9]+)d)?\\s*(?:([0-9]+)h)?\\s*(?:([0-9]+)m)?\\s*(?:([0-9]+)s)?\\s*$");
+		dateDiff = dateDiff.toLowerCase();
+		
+		Matcher m = dateDiffPattern.matcher(dateDiff);
+		if(!m.matches())
+			return 0;
+		
+		long[] units = {Durations.YEAR, Durations.MONTH, Durations.WEEK, Durations.DAY, Durations.HOUR, Durations.MINUTE, Durations.SECOND};
+		long time = 0;
+		for(int i = 0; i < units.length; ++i)
+		{
+			if(m.group(i + 2) != null)
+				time += Integer.parseInt(m.group(i + 2)) * units[i];
+		}
+		
+		return (m.group(1) != null && m.group(1).compareTo("-") == 0 ? -time : time);
+	}
+	
+	@Benchmark
+	public long duration()
+	{
+		return Durations.parse(mDuration);
+	}
+	
+	@Benchmark
+	public float speedLegacy()
+	{
+		if(mSpeed.matches("[0-9]+(.[0-9]+)?") && Float.valueOf(mSpeed) >= 0 && Float.valueOf(mSpeed) <= 10)
+			return Float.valueOf(mSpeed);
+		
+		return Float.NaN;
+	}
+	
+	@Benchmark
+	public float speed()
+	{
+		return Speeds.parse(mSpeed);
+	}
+	
+	@Benchmark
+	public int expLegacy()
+	{
+		if(mExp.matches("L[0-9]+"))
+			return Integer.valueOf(mExp.replace("L", ""));
+		else if(mExp.matches("[0-9]+"))
+			return Integer.valueOf(mExp);
+		
+		return -1;
+	}
+	
+	@Benchmark
+	public ExpAmount exp()
+	{
+		return ExpAmount.parse(mExp);
+	}
+	
+	@Benchmark
+	public int countLegacy()
+	{
+		if(mCount.matches("[0-9]+"))
+			return Integer.parseInt(mCount);
+		
+		return 1;
+	}
+	
+	@Benchmark
+	public int count()
+	{
+		return Numbers.parseUnsignedInt(mCount);
+	}
+	
+	@Benchmark
+	public double coordinatesLegacy()
+	{
+		Pattern coordsPattern = Pattern.compile("([a-zA-Z0-9_@#]+)?\\[([0-9~-]+),([0-9~-]+),([0-9~-]+)\\]");
+		Matcher reMatch = coordsPattern.matcher(mCoordinates);
+		if(!reMatch.find())
+			return 0;
+		
+		return resolveLegacy(reMatch.group(2), mBaseX) + resolveLegacy(reMatch.group(3), mBaseY) + resolveLegacy(reMatch.group(4), mBaseZ);
+	}
+	
+	private static double resolveLegacy(String coordSpec, double playerCoord)
+	{
+		if(coordSpec.isEmpty() || coordSpec.equals("~"))
+			return playerCoord;
+		
+		try
+		{
+			if(coordSpec.startsWith("~"))
+				return playerCoord + Double.parseDouble(coordSpec.substring(1));
+			
+			return Double.parseDouble(coordSpec);
+		}
+		catch(NumberFormatException e)
+		{
+			return playerCoord;
+		}
+	}
+	
+	@Benchmark
+	public double coordinates()
+	{
+		CoordinateSpec spec = CoordinateSpec.find(mCoordinates);
+		if(spec == null)
+			return 0;
+		
+		return spec.getX().resolve(mBaseX) + spec.getY().resolve(mBaseY) + spec.getZ().resolve(mBaseZ);
+	}
+}